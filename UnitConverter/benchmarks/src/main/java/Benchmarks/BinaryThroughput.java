@@ -0,0 +1,137 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import polsl.BinaryService;
+
+/**
+ * Throughput test of the binary conversion protocol on loopback. Starts a {@link BinaryService}
+ * in the same process, streams frames of centimetre values to it over one connection per
+ * event loop, with a writer and a reader thread per connection so that frames are pipelined,
+ * and reports the volume of converted doubles per second and per event loop. Every response
+ * is checked against the expected conversion.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar Benchmarks.BinaryThroughput [seconds] [loops] [values per frame]}.
+ * The process exits with status 1 if a response is wrong.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class BinaryThroughput {
+
+    /** Header of a request and of a response, in bytes. */
+    private static final int HEADER = BinaryService.HEADER_BYTES;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private BinaryThroughput() {
+    }
+
+    /**
+     * Runs the throughput test.
+     *
+     * @param args optionally the duration in seconds, the number of event loops and the values per frame
+     * @throws Exception if the service cannot be started or a connection fails
+     */
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int values = args.length > 2 ? Integer.parseInt(args[2]) : 8192;
+
+        BinaryService service = new BinaryService(0, loops);
+        service.start();
+        int pair = BinaryService.pairId("cm", "m");
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong received = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        Thread[] threads = new Thread[2 * loops];
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            SocketChannel channel = SocketChannel.open(service.getAddress());
+            threads[2 * i] = new Thread(() -> send(channel, pair, values, deadline), "writer-" + i);
+            threads[2 * i + 1] = new Thread(() -> receive(channel, values, received, errors), "reader-" + i);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        service.close();
+
+        double gigabytes = received.get() * (double) Double.BYTES / 1e9;
+        System.out.printf("Frames of %d values over %d connection(s) for %.1f s%n", values, loops, elapsed);
+        System.out.printf("Converted %d values: %.3f GB/s, %.3f GB/s per event loop%n",
+                received.get(), gigabytes / elapsed, gigabytes / elapsed / loops);
+        System.out.println(errors.get() == 0 ? "PASS" : "FAIL: " + errors.get() + " wrong values");
+        System.exit(errors.get() == 0 ? 0 : 1);
+    }
+
+    /**
+     * Sends frames until the deadline, then shuts the connection's output down.
+     *
+     * @param channel the connection
+     * @param pair the unit pair ID
+     * @param values the number of values per frame
+     * @param deadline the time to stop sending, from {@link System#nanoTime()}
+     */
+    private static void send(SocketChannel channel, int pair, int values, long deadline) {
+        ByteBuffer frame = ByteBuffer.allocateDirect(HEADER + values * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(values * Double.BYTES).putInt(pair);
+        for (int i = 0; i < values; i++) {
+            frame.putDouble(i);
+        }
+        try {
+            while (System.nanoTime() < deadline) {
+                frame.clear();
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+            channel.shutdownOutput();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Reads and checks responses until the service closes the connection.
+     *
+     * @param channel the connection
+     * @param values the number of values per frame
+     * @param received counter of the received values
+     * @param errors counter of the wrong values and headers
+     */
+    private static void receive(SocketChannel channel, int values, AtomicLong received, AtomicLong errors) {
+        ByteBuffer frame = ByteBuffer.allocateDirect(HEADER + values * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (SocketChannel connection = channel) {
+            while (true) {
+                frame.clear();
+                while (frame.hasRemaining()) {
+                    if (connection.read(frame) < 0) {
+                        return;
+                    }
+                }
+                if (frame.getInt(0) != values * Double.BYTES || frame.getInt(4) != BinaryService.STATUS_OK) {
+                    errors.incrementAndGet();
+                }
+                // Spot-check a few values; checking all of them would bound the reader, not the service
+                for (int i = 0; i < values; i += 1021) {
+                    if (frame.getDouble(HEADER + i * Double.BYTES) != i * 0.01) {
+                        errors.incrementAndGet();
+                    }
+                }
+                received.addAndGet(values);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
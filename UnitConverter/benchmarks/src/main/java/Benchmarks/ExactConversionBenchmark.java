@@ -0,0 +1,114 @@
+package Benchmarks;
+
+import Exceptions.NegativeValueException;
+import Model.Dimension;
+import Model.FixedDecimal;
+import Model.LinearTransform;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import polsl.NumberFormatter;
+
+/**
+ * Compares three ways of turning a decimal input into the text of its conversion: double
+ * arithmetic with the shortest round-trip formatter, BigDecimal arithmetic, and the exact
+ * fixed-point mode of {@link Dimension#convertExact}. Run with {@code -prof gc} to compare
+ * the allocation rates as well.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExactConversionBenchmark {
+
+    /** Input values as typed. */
+    @Param({"0.3", "123.45", "98.6"})
+    public String input;
+
+    /** Unit pairs as {@code from:to}: a decimal shift, a longer shift, an affine pair and a dividing pair. */
+    @Param({"cm:m", "mm:km", "C:F", "F:C"})
+    public String pair;
+
+    private Dimension dimension;
+    private String fromUnit;
+    private String toUnit;
+    private BigDecimal scale;
+    private BigDecimal offset;
+
+    /** Formatter of the double results. */
+    private final NumberFormatter formatter = new NumberFormatter();
+
+    /** Reusable character sink of the double results. */
+    private final char[] chars = new char[64];
+
+    /** Reusable decimal of the fixed-point conversion. */
+    private final FixedDecimal decimal = new FixedDecimal();
+
+    /** Reusable text of the fixed-point results. */
+    private final StringBuilder text = new StringBuilder(64);
+
+    /**
+     * Resolves the unit pair.
+     */
+    @Setup
+    public void setup() {
+        int colon = pair.indexOf(':');
+        fromUnit = pair.substring(0, colon);
+        toUnit = pair.substring(colon + 1);
+        dimension = Dimension.ofUnit(fromUnit);
+        LinearTransform transform = dimension.transform(fromUnit, toUnit);
+        scale = BigDecimal.valueOf(transform.getScale());
+        offset = BigDecimal.valueOf(transform.getOffset());
+    }
+
+    /**
+     * Parses, converts and formats with doubles, e.g. 0.3 cm gives 0.003 only thanks to shortest formatting.
+     *
+     * @return the end offset of the text, consumed by JMH
+     * @throws NegativeValueException never, the inputs are positive
+     */
+    @Benchmark
+    public int doubleArithmetic() throws NegativeValueException {
+        return formatter.format(dimension.convert(Double.parseDouble(input), fromUnit, toUnit), chars, 0);
+    }
+
+    /**
+     * Parses, converts and formats with BigDecimal, using the pair's double coefficients.
+     *
+     * @return the result text
+     */
+    @Benchmark
+    public String bigDecimal() {
+        return new BigDecimal(input).multiply(scale, MathContext.DECIMAL128).add(offset).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Parses, converts and formats exactly into reusable objects.
+     *
+     * @return the length of the text, consumed by JMH
+     * @throws NegativeValueException never, the inputs are positive
+     */
+    @Benchmark
+    public int fixedPoint() throws NegativeValueException {
+        decimal.parse(input);
+        dimension.convertExact(decimal, fromUnit, toUnit, decimal);
+        text.setLength(0);
+        return decimal.appendTo(text).length();
+    }
+}
@@ -0,0 +1,99 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import polsl.NumberFormatter;
+
+/**
+ * Compares the {@code result + " " + toUnit} label formatting formerly done by the controllers
+ * with {@link NumberFormatter} writing into reusable buffers, as the converter view and the CLI do.
+ * 
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+    /** Typical conversion results, including values printed in scientific notation. */
+    @Param({"100.0", "0.30000000000000004", "1234567.8", "1.0E-5", "2.5E9"})
+    public double result;
+
+    /** Unit appended to the result. */
+    public String toUnit = "cm";
+
+    /** Formatter writing the shortest round-trip digits. */
+    private final NumberFormatter shortest = new NumberFormatter();
+
+    /** Formatter rounding to six significant digits. */
+    private final NumberFormatter sixDigits = new NumberFormatter(6);
+
+    /** Reusable character sink. */
+    private final char[] chars = new char[64];
+
+    /** Reusable byte sink. */
+    private final byte[] bytes = new byte[64];
+
+    /**
+     * Formats the result label the way the controllers do.
+     *
+     * @return the label text
+     */
+    @Benchmark
+    public String label() {
+        return result + " " + toUnit;
+    }
+
+    /**
+     * Formats the result label with the formatter, creating only the label string.
+     *
+     * @return the label text
+     */
+    @Benchmark
+    public String formatterLabel() {
+        return shortest.toString(result, toUnit);
+    }
+
+    /**
+     * Writes the result and unit into a reusable character buffer.
+     *
+     * @return the end offset, consumed by JMH
+     */
+    @Benchmark
+    public int formatChars() {
+        return shortest.format(result, toUnit, chars, 0);
+    }
+
+    /**
+     * Writes the result and unit into a reusable byte buffer.
+     *
+     * @return the end offset, consumed by JMH
+     */
+    @Benchmark
+    public int formatBytes() {
+        return shortest.format(result, toUnit, bytes, 0);
+    }
+
+    /**
+     * Writes the result rounded to six significant digits into a reusable byte buffer.
+     *
+     * @return the end offset, consumed by JMH
+     */
+    @Benchmark
+    public int formatSixDigits() {
+        return sixDigits.format(result, toUnit, bytes, 0);
+    }
+}
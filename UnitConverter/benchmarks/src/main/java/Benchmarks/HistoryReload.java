@@ -0,0 +1,91 @@
+package Benchmarks;
+
+import Model.Dimension;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import polsl.HistoryLog;
+
+/**
+ * Startup cost of the persistent history. Fills a {@link HistoryLog} with millions of records
+ * unless the file already exists, then measures what the application does at startup: opening
+ * the log and reloading its last records. The first measurement is the one a starting
+ * application pays; the best of the repeated ones shows the cost once the file is cached. The
+ * dimensions and their unit registry, which the application has loaded before it reloads its
+ * history, are loaded before measuring.
+ * Run it a second time on the same file to measure without the filling in the same process.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar Benchmarks.HistoryReload [file] [records] [reloaded]}.
+ * The process exits with status 1 if the first reload takes more than 50 ms or returns the wrong records.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class HistoryReload {
+
+    /** Startup budget of the reload, in milliseconds. */
+    private static final double BUDGET_MILLIS = 50;
+
+    /** Number of measurements after the first one. */
+    private static final int REPEATS = 10;
+
+    /**
+     * Prevents instantiation of this class.
+     */
+    private HistoryReload() {
+    }
+
+    /**
+     * Runs the measurement.
+     *
+     * @param args optionally the log file, the number of records to fill it with and the number of records reloaded
+     * @throws Exception if the log cannot be written or read
+     */
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args.length > 0 ? args[0] : "history-reload.bin");
+        long records = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000;
+        int reloaded = args.length > 2 ? Integer.parseInt(args[2]) : HistoryLog.DEFAULT_RELOAD;
+
+        if (Files.notExists(file)) {
+            long start = System.nanoTime();
+            try (HistoryLog log = new HistoryLog(file)) {
+                for (long i = 0; i < records; i++) {
+                    log.append(i, "cm", "m", i / 100.0);
+                    if (i % 100_000 == 99_999) {
+                        log.flush();
+                    }
+                }
+            }
+            System.out.printf("Wrote %d records (%d MB) in %.1f s%n", records,
+                    Files.size(file) >> 20, (System.nanoTime() - start) / 1e9);
+        }
+        Dimension.LENGTH.getUnits();
+        long stored = (Files.size(file) - HistoryLog.HEADER_BYTES) / HistoryLog.RECORD_BYTES;
+
+        double first = 0;
+        double best = Double.MAX_VALUE;
+        boolean correct = true;
+        for (int i = 0; i <= REPEATS; i++) {
+            long start = System.nanoTime();
+            HistoryLog.Tail tail;
+            try (HistoryLog log = new HistoryLog(file)) {
+                tail = log.readTail(reloaded);
+            }
+            double millis = (System.nanoTime() - start) / 1e6;
+            if (i == 0) {
+                first = millis;
+            } else {
+                best = Math.min(best, millis);
+            }
+            int expected = (int) Math.min(reloaded, stored);
+            correct &= tail.size() == expected
+                    && (expected == 0 || tail.getValue(expected - 1) == stored - 1 && "cm".equals(tail.getFromUnit(0)));
+        }
+
+        System.out.printf("Reloaded %d of %d records: first %.2f ms, best %.2f ms (budget %.0f ms)%n",
+                Math.min(reloaded, stored), stored, first, best, BUDGET_MILLIS);
+        boolean pass = correct && first <= BUDGET_MILLIS;
+        System.out.println(pass ? "PASS" : correct ? "FAIL: over budget" : "FAIL: wrong records");
+        System.exit(pass ? 0 : 1);
+    }
+}
@@ -0,0 +1,81 @@
+package Benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import polsl.NumberParser;
+
+/**
+ * Compares the Double.parseDouble input path with {@link NumberParser} on characters and on bytes.
+ * 
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+    /** Typical user input, from short integers to long fractions and exponents. */
+    @Param({"42", "0.001", "1234.5678", "3.141592653589793", "1e9", "-17.25"})
+    public String input;
+
+    /** The input as ASCII bytes, as read by a headless feed. */
+    private byte[] bytes;
+
+    /** Receives the values parsed by NumberParser. */
+    private final double[] result = new double[1];
+
+    /**
+     * Encodes the input as bytes.
+     */
+    @Setup
+    public void setUp() {
+        bytes = input.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Parses the input the way the controllers used to.
+     *
+     * @return the parsed value
+     */
+    @Benchmark
+    public double parseDouble() {
+        return Double.parseDouble(input);
+    }
+
+    /**
+     * Parses the input as a character sequence, the way the controllers do.
+     *
+     * @return the parsed value
+     */
+    @Benchmark
+    public double parseChars() {
+        NumberParser.parse(input, result, 0);
+        return result[0];
+    }
+
+    /**
+     * Parses the input from a byte range without decoding it to a String.
+     *
+     * @return the parsed value
+     */
+    @Benchmark
+    public double parseBytes() {
+        NumberParser.parse(bytes, 0, bytes.length, result, 0);
+        return result[0];
+    }
+}
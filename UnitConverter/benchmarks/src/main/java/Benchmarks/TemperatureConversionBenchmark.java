@@ -0,0 +1,53 @@
+package Benchmarks;
+
+import Model.TemperatureModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures TemperatureModel.convert for every pair of temperature units.
+ * 
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TemperatureConversionBenchmark {
+
+    /** Model under test. */
+    private final TemperatureModel model = new TemperatureModel();
+
+    /** Unit to convert from. */
+    @Param({"C", "K", "F"})
+    public String fromUnit;
+
+    /** Unit to convert to. */
+    @Param({"C", "K", "F"})
+    public String toUnit;
+
+    /** Value to convert, kept in a field so the conversion cannot be constant-folded. */
+    public double value = 1234.5678;
+
+    /**
+     * Converts a single value through the string-based model API used by the controllers.
+     *
+     * @return the converted value
+     */
+    @Benchmark
+    public double convert() {
+        return model.convert(value, fromUnit, toUnit);
+    }
+}
@@ -0,0 +1,496 @@
+package Controller;
+
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.Node;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import Model.Dimension;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import polsl.ConversionHistory;
+import polsl.ConversionRecord;
+import polsl.NumberFormatter;
+import polsl.ConverterMetrics;
+import polsl.HistoryLog;
+import polsl.NumberParser;
+import Exceptions.NegativeValueException;
+
+/**
+ * Controller class for the conversion view, shared by every {@link Dimension}.
+ * The view is loaded once; selecting a dimension swaps its title, unit lists and history
+ * table instead of loading another view. Each dimension keeps its own conversion history,
+ * input and unit selection, which are restored when the dimension is selected again.
+ * Histories are saved to the shared {@link HistoryLog} and reloaded from it on the next run.
+ * Implements {@link Initializable} to set up the initial UI state and tooltips.
+ * Includes keyboard shortcuts for conversion and navigation, and an optional live mode
+ * that converts while the user types, off the FX thread.
+ * Handles invalid input and negative values with exception handling.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public class ConverterController implements Initializable {
+
+    /** Resource path of the conversion view. */
+    public static final String VIEW = "/View/Converter.fxml";
+
+    /** Primary stage for the application window. */
+    @FXML
+    private Stage stage;
+
+    /** Label showing the name of the selected dimension. */
+    @FXML
+    private Label titleLabel;
+
+    /** Label to display the result of the conversion. */
+    @FXML
+    private Label myLabel;
+
+    /** Text field for entering the value to convert. */
+    @FXML
+    private TextField nameTextField;
+
+    /** Choice box for selecting the unit to convert from. */
+    @FXML
+    private ChoiceBox<String> ChoiceBoxFrom;
+
+    /** Choice box for selecting the unit to convert to. */
+    @FXML
+    private ChoiceBox<String> ChoiceBoxTo;
+
+    /** Button that triggers the conversion action. */
+    @FXML
+    private Button convertButton;
+
+    /** Button that navigates back to the main menu. */
+    @FXML
+    private Button backButton;
+
+    /** Check box switching on the conversion as the user types. */
+    @FXML
+    private CheckBox liveCheckBox;
+
+    /** Table view for displaying past conversion records. */
+    @FXML
+    private TableView<ConversionRecord> conversionTable;
+
+    /** Table column displaying the original value in each conversion record. */
+    @FXML
+    private TableColumn<ConversionRecord, Double> valueColumn;
+
+    /** Table column displaying the unit from which conversion was done. */
+    @FXML
+    private TableColumn<ConversionRecord, String> fromUnitColumn;
+
+    /** Table column displaying the unit to which conversion was done. */
+    @FXML
+    private TableColumn<ConversionRecord, String> toUnitColumn;
+
+    /** Table column displaying the result of each conversion record. */
+    @FXML
+    private TableColumn<ConversionRecord, Double> resultColumn;
+
+    /** Logger used to report a history log that cannot be reloaded. */
+    private static final Logger LOGGER = System.getLogger(ConverterController.class.getName());
+
+    /** Log persisting the history across runs, or null if history is not saved. */
+    private final HistoryLog historyLog = HistoryLog.shared();
+
+    /** Records of previous runs reloaded from the history log, read on a background thread. */
+    private final CompletableFuture<HistoryLog.Tail> restored = reloadHistory();
+
+    /** State of each dimension that has been shown, created on first selection. */
+    private final Map<Dimension, DimensionState> states = new EnumMap<>(Dimension.class);
+
+    /** Dimension currently shown, or null before the first selection. */
+    private Dimension dimension;
+
+    /** State of the dimension currently shown. */
+    private DimensionState state;
+
+    /** Receives the value parsed from the text field. */
+    private final double[] parsedInput = new double[1];
+
+    /** Writes conversion results as their shortest round-trip decimal text. */
+    private final NumberFormatter formatter = new NumberFormatter();
+
+    /** Converts the input while the user types, when the live mode is on. */
+    private LiveConversion live;
+
+    /** Receives the value parsed by a live conversion; used only on the live conversion worker. */
+    private final double[] liveInput = new double[1];
+
+    /** Formats the results of live conversions; used only on the live conversion worker. */
+    private final NumberFormatter liveFormatter = new NumberFormatter();
+
+    /**
+     * Shows the given dimension in this view, saving the input and unit selection of
+     * the dimension shown before. Selecting the dimension already shown does nothing.
+     *
+     * @param dimension the dimension to convert between
+     */
+    public void setDimension(Dimension dimension)
+    {
+        if (dimension == this.dimension) {
+            return;
+        }
+        if (state != null) {
+            state.save();
+        }
+        this.dimension = dimension;
+        state = states.computeIfAbsent(dimension, DimensionState::new);
+
+        titleLabel.setText(dimension.getTitle() + " Converter");
+        ChoiceBoxFrom.getItems().setAll(dimension.getUnits());
+        ChoiceBoxTo.getItems().setAll(dimension.getUnits());
+        ChoiceBoxFrom.setAccessibleText("Choose " + dimension.getTitle().toLowerCase() + " unit");
+        conversionTable.setItems(state.history);
+        state.restore();
+        live.cancel();
+    }
+
+    /**
+     * Returns the dimension currently shown.
+     *
+     * @return the selected dimension, or null if none has been selected yet
+     */
+    public Dimension getDimension()
+    {
+        return dimension;
+    }
+
+    /**
+     * Converts the input value from one unit to another.
+     * Adds the conversion result to the table view.
+     *
+     * @param e the action event triggered by pressing the convert button
+     * @throws IOException if an I/O error occurs
+     */
+    public void convert(ActionEvent e) throws IOException
+    {
+        live.cancel();
+        if (NumberParser.parse(nameTextField.getCharacters(), parsedInput, 0) != NumberParser.OK)
+        {
+            ConverterMetrics.get().recordParseFailure();
+            myLabel.setText("Invalid Input. Please enter a number");
+            return;
+        }
+        try
+        {
+            double value = parsedInput[0];
+            String fromUnit = ChoiceBoxFrom.getValue();
+            String toUnit = ChoiceBoxTo.getValue();
+
+            double result = dimension.convert(value, fromUnit, toUnit);
+            myLabel.setText(formatter.toString(result, toUnit));
+
+            state.history.add(value, fromUnit, toUnit, result);
+        } catch(NegativeValueException ex)
+        {
+            myLabel.setText("Invalid Input. " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Records a change of the input or units, converting it once typing stops if the live mode is on.
+     */
+    private void inputChanged()
+    {
+        if (liveCheckBox.isSelected()) {
+            live.changed();
+        }
+    }
+
+    /**
+     * Captures the input shown now for a live conversion.
+     *
+     * @return the conversion of the captured input, to run off the FX thread
+     */
+    private Supplier<String> liveSnapshot()
+    {
+        Dimension dimension = this.dimension;
+        String text = nameTextField.getText();
+        String fromUnit = ChoiceBoxFrom.getValue();
+        String toUnit = ChoiceBoxTo.getValue();
+        return () -> convertLive(dimension, text, fromUnit, toUnit);
+    }
+
+    /**
+     * Converts captured input the way {@link #convert(ActionEvent)} does, without recording it in the history
+     * or as a conversion in the metrics and flight recordings.
+     *
+     * @param dimension the dimension shown when the input was captured
+     * @param text the text of the input field
+     * @param fromUnit the unit to convert from
+     * @param toUnit the unit to convert to
+     * @return the text of the result label
+     */
+    private String convertLive(Dimension dimension, String text, String fromUnit, String toUnit)
+    {
+        if (dimension == null || fromUnit == null || toUnit == null || text.isEmpty()) {
+            return "Result";
+        }
+        if (NumberParser.parse(text, liveInput, 0) != NumberParser.OK) {
+            return "Invalid Input. Please enter a number";
+        }
+        try {
+            return liveFormatter.toString(dimension.preview(liveInput[0], fromUnit, toUnit), toUnit);
+        } catch (NegativeValueException ex) {
+            return "Invalid Input. " + ex.getMessage();
+        }
+    }
+
+    /**
+     * Navigates back to the main menu.
+     *
+     * @param e the action event triggered by pressing the back button
+     * @throws IOException if an I/O error occurs while loading the main menu
+     */
+    public void backToMainMenu(ActionEvent e) throws IOException
+    {
+        stage = (Stage)((Node)e.getSource()).getScene().getWindow();
+        ViewCache.show(stage, MainMenuController.VIEW);
+    }
+
+    /**
+     * Initializes the UI components, sets up tooltips and key shortcuts.
+     * The unit lists and the history table are filled in by {@link #setDimension(Dimension)}.
+     *
+     * @param url the location used to resolve relative paths for the root object
+     * @param rb the resources used to localize the root object
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle rb)
+    {
+        Shortcuts.bind(convertButton, new KeyCodeCombination(KeyCode.C, KeyCombination.CONTROL_DOWN));
+        Shortcuts.bind(backButton, new KeyCodeCombination(KeyCode.B, KeyCombination.CONTROL_DOWN));
+
+        valueColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getValue()));
+        fromUnitColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getFromUnit()));
+        toUnitColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getToUnit()));
+        resultColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getResult()));
+
+        live = new LiveConversion(this::liveSnapshot, myLabel::setText);
+        nameTextField.textProperty().addListener((observable, oldText, newText) -> inputChanged());
+        ChoiceBoxFrom.valueProperty().addListener((observable, oldUnit, newUnit) -> inputChanged());
+        ChoiceBoxTo.valueProperty().addListener((observable, oldUnit, newUnit) -> inputChanged());
+        liveCheckBox.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            if (selected) {
+                live.changed();
+            } else {
+                live.cancel();
+            }
+        });
+
+        // Set tooltips for each UI component
+        Tooltip ChoiceBoxFromToolTip = new Tooltip("Select the unit to convert from");
+        ChoiceBoxFrom.setTooltip(ChoiceBoxFromToolTip);
+
+        Tooltip ChoiceBoxToToolTip = new Tooltip("Select the unit to convert to");
+        ChoiceBoxTo.setTooltip(ChoiceBoxToToolTip);
+
+        Tooltip nameTextTooltip = new Tooltip("Please enter value to convert");
+        nameTextField.setTooltip(nameTextTooltip);
+
+        Tooltip convertButtonTooltip = new Tooltip("Press button to convert (CTRL + C)");
+        convertButton.setTooltip(convertButtonTooltip);
+
+        Tooltip backButtonTooltip = new Tooltip("Press button to back to main menu (CTRL + B)");
+        backButton.setTooltip(backButtonTooltip);
+
+        liveCheckBox.setTooltip(new Tooltip("Convert while typing, without adding to the history"));
+
+        // Set accessible text for each UI component
+        nameTextField.setAccessibleText("Enter value to convert");
+        nameTextField.setAccessibleHelp("Field to enter the value to be converted");
+
+        convertButton.setAccessibleText("Convert value");
+        convertButton.setAccessibleHelp("Press the button to convert your value");
+
+        backButton.setAccessibleText("Back button");
+        backButton.setAccessibleHelp("Press to back to main menu");
+
+        liveCheckBox.setAccessibleText("Convert as you type");
+        liveCheckBox.setAccessibleHelp("Check to show the result while typing");
+
+        ChoiceBoxFrom.setAccessibleHelp("Choose one of the following units");
+
+        // Set tooltip visibility based on mouse events
+        nameTextField.setOnMouseEntered(event -> showNameTextTooltipIfVisible());
+        nameTextField.setOnMouseExited(event -> nameTextTooltip.hide());
+
+        convertButton.setOnMouseEntered(event -> showConvertButtonTooltipIfVisible());
+        convertButton.setOnMouseExited(event -> convertButtonTooltip.hide());
+
+        backButton.setOnMouseEntered(event -> showBackButtonTooltipIfVisible());
+        backButton.setOnMouseExited(event -> backButtonTooltip.hide());
+
+        ChoiceBoxFrom.setOnMouseEntered(event -> showFromChoiceBoxTooltipIfVisible());
+        ChoiceBoxFrom.setOnMouseExited(event -> ChoiceBoxFromToolTip.hide());
+
+        ChoiceBoxTo.setOnMouseEntered(event -> showToChoiceBoxTooltipIfVisible());
+        ChoiceBoxTo.setOnMouseExited(event -> ChoiceBoxToToolTip.hide());
+    }
+
+    /**
+     * Shows the tooltip for the nameTextField if visible and not disabled.
+     */
+    private void showNameTextTooltipIfVisible() {
+        if (nameTextField.isVisible() && !nameTextField.isDisabled()) {
+            Tooltip tooltip = nameTextField.getTooltip();
+            tooltip.show(nameTextField,
+                nameTextField.getScene().getWindow().getX() + nameTextField.getLayoutX(),
+                nameTextField.getScene().getWindow().getY() + nameTextField.getLayoutY());
+        }
+    }
+
+    /**
+     * Shows the tooltip for the convertButton if visible and not disabled.
+     */
+    private void showConvertButtonTooltipIfVisible() {
+        if (convertButton.isVisible() && !convertButton.isDisabled()) {
+            Tooltip tooltip = convertButton.getTooltip();
+            tooltip.show(convertButton,
+                convertButton.getScene().getWindow().getX() + convertButton.getLayoutX(),
+                convertButton.getScene().getWindow().getY() + convertButton.getLayoutY());
+        }
+    }
+
+    /**
+     * Shows the tooltip for the backButton if visible and not disabled.
+     */
+    private void showBackButtonTooltipIfVisible() {
+        if (backButton.isVisible() && !backButton.isDisabled()) {
+            Tooltip tooltip = backButton.getTooltip();
+            tooltip.show(backButton,
+                backButton.getScene().getWindow().getX() + backButton.getLayoutX(),
+                backButton.getScene().getWindow().getY() + backButton.getLayoutY());
+        }
+    }
+
+    /**
+     * Shows the tooltip for the ChoiceBoxFrom if visible and not disabled.
+     */
+    private void showFromChoiceBoxTooltipIfVisible() {
+        if (ChoiceBoxFrom.isVisible() && !ChoiceBoxFrom.isDisabled()) {
+            Tooltip tooltip = ChoiceBoxFrom.getTooltip();
+            tooltip.show(ChoiceBoxFrom,
+                ChoiceBoxFrom.getScene().getWindow().getX() + ChoiceBoxFrom.getLayoutX(),
+                ChoiceBoxFrom.getScene().getWindow().getY() + ChoiceBoxFrom.getLayoutY());
+        }
+    }
+
+    /**
+     * Shows the tooltip for the ChoiceBoxTo if visible and not disabled.
+     */
+    private void showToChoiceBoxTooltipIfVisible() {
+        if (ChoiceBoxTo.isVisible() && !ChoiceBoxTo.isDisabled()) {
+            Tooltip tooltip = ChoiceBoxTo.getTooltip();
+            tooltip.show(ChoiceBoxTo,
+                ChoiceBoxTo.getScene().getWindow().getX() + ChoiceBoxTo.getLayoutX(),
+                ChoiceBoxTo.getScene().getWindow().getY() + ChoiceBoxTo.getLayoutY());
+        }
+    }
+
+    /**
+     * Starts reading the records of previous runs from the history log on a daemon thread,
+     * so that the memory mapping and decoding of the tail stay off the FX thread.
+     *
+     * @return the reloaded records, oldest first; empty if history is not saved or cannot be read
+     */
+    private CompletableFuture<HistoryLog.Tail> reloadHistory() {
+        CompletableFuture<HistoryLog.Tail> tail = new CompletableFuture<>();
+        if (historyLog == null) {
+            tail.complete(HistoryLog.Tail.EMPTY);
+            return tail;
+        }
+        Thread reload = new Thread(() -> {
+            try {
+                tail.complete(historyLog.readPrevious(HistoryLog.DEFAULT_RELOAD));
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Cannot reload the history log " + historyLog.getPath(), ex);
+                tail.complete(HistoryLog.Tail.EMPTY);
+            }
+        }, "history-reload");
+        reload.setDaemon(true);
+        reload.start();
+        return tail;
+    }
+
+    /**
+     * What the view shows for one dimension: its conversion history and, while another
+     * dimension is shown, the input, unit selection and result that were on screen.
+     */
+    private final class DimensionState {
+
+        /** Columnar history of past conversions in this dimension. */
+        private final HistoryRows history;
+
+        /** Text of the input field. */
+        private String input = "";
+
+        /** Selected unit to convert from. */
+        private String fromUnit;
+
+        /** Selected unit to convert to. */
+        private String toUnit;
+
+        /** Text of the result label. */
+        private String result = "Result";
+
+        /**
+         * Creates the state of a dimension that has not been shown yet. Its history starts empty;
+         * the records reloaded from the log are inserted on the FX thread once they are read.
+         *
+         * @param dimension the dimension
+         */
+        DimensionState(Dimension dimension) {
+            HistoryRows rows = new HistoryRows(new ConversionHistory(dimension.getUnits().toArray(new String[0])), historyLog);
+            restored.thenAcceptAsync(tail -> rows.restore(tail, dimension.getUnits()), Platform::runLater);
+            history = rows;
+            fromUnit = dimension.getDefaultUnit();
+            toUnit = dimension.getDefaultUnit();
+        }
+
+        /**
+         * Records what the view currently shows.
+         */
+        void save() {
+            input = nameTextField.getText();
+            fromUnit = ChoiceBoxFrom.getValue();
+            toUnit = ChoiceBoxTo.getValue();
+            result = myLabel.getText();
+        }
+
+        /**
+         * Puts the recorded input, units and result back into the view.
+         */
+        void restore() {
+            nameTextField.setText(input);
+            ChoiceBoxFrom.setValue(fromUnit);
+            ChoiceBoxTo.setValue(toUnit);
+            myLabel.setText(result);
+        }
+    }
+}
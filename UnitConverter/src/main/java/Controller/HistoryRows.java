@@ -0,0 +1,113 @@
+package Controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import javafx.collections.ObservableListBase;
+import polsl.ConversionHistory;
+import polsl.ConversionRecord;
+import polsl.HistoryLog;
+
+/**
+ * Read-only observable view of a {@link ConversionHistory}, used as the items of a conversion table.
+ * Rows are materialized as {@link ConversionRecord} objects only when the table reads them,
+ * which in practice means only the visible rows. Conversions added through the view are also
+ * appended to a {@link HistoryLog}, when one is given, so that they are reloaded on the next run.
+ * Conversions reloaded from the log are inserted before them with {@link #restore}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+final class HistoryRows extends ObservableListBase<ConversionRecord> {
+
+    /** The columnar store backing this view; replaced when reloaded conversions are inserted. */
+    private ConversionHistory history;
+
+    /** Log persisting added conversions, or null. */
+    private final HistoryLog log;
+
+    /**
+     * Constructs a view of the given history.
+     *
+     * @param history the columnar store backing this view
+     * @param log the log persisting added conversions, or null if they are not saved
+     */
+    HistoryRows(ConversionHistory history, HistoryLog log) {
+        this.history = history;
+        this.log = log;
+    }
+
+    /**
+     * Appends a conversion to the history and the log, and notifies the table.
+     *
+     * @param value the original value
+     * @param fromUnit the unit of the original value
+     * @param toUnit the unit of the converted value
+     * @param result the result of the conversion
+     */
+    void add(double value, String fromUnit, String toUnit, double result) {
+        history.add(value, fromUnit, toUnit, result);
+        if (log != null) {
+            log.append(value, fromUnit, toUnit, result);
+        }
+        int index = history.size() - 1;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    /**
+     * Inserts the conversions reloaded from a log before the rows of this history, and notifies
+     * the table. Conversions whose units are not in the given list are skipped. The reloaded
+     * conversions are not appended to the log again.
+     *
+     * @param tail the conversions reloaded from the log, oldest first
+     * @param units the units of this history
+     * @throws UncheckedIOException if the rows cannot be moved to the new store
+     */
+    void restore(HistoryLog.Tail tail, List<String> units) {
+        ConversionHistory restored = new ConversionHistory(history.getCapacity(), units.toArray(new String[0]));
+        for (int i = 0; i < tail.size(); i++) {
+            if (units.contains(tail.getFromUnit(i)) && units.contains(tail.getToUnit(i))) {
+                restored.add(tail.getValue(i), tail.getFromUnit(i), tail.getToUnit(i), tail.getResult(i));
+            }
+        }
+        int count = restored.size();
+        if (count == 0) {
+            return;
+        }
+        for (int i = 0; i < history.size(); i++) {
+            restored.add(history.getValue(i), history.getFromUnit(i), history.getToUnit(i), history.getResult(i));
+        }
+        try {
+            history.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        history = restored;
+        beginChange();
+        nextAdd(0, count);
+        endChange();
+    }
+
+    /**
+     * Returns the row at the given index as a newly created record.
+     *
+     * @param index the row index
+     * @return the record for the row
+     */
+    @Override
+    public ConversionRecord get(int index) {
+        return history.get(index);
+    }
+
+    /**
+     * Returns the number of rows in the history.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int size() {
+        return history.size();
+    }
+}
@@ -0,0 +1,137 @@
+package Controller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * Converts while the user types. Changes restart a short pause on the FX thread, so a burst
+ * of keystrokes results in a single conversion once typing stops. The conversion then runs on
+ * a background worker and only the result of the latest change is published; results
+ * overtaken by a newer change, or by {@link #cancel()}, are dropped.
+ * <p>
+ * A change costs a counter increment and a timer restart: nothing is queued per keystroke.
+ * Each instance has at most one conversion waiting for the worker, replaced by newer ones.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+final class LiveConversion {
+
+    /** Time without changes after which the input is converted. */
+    private static final Duration DELAY = Duration.millis(150);
+
+    /** Captures the inputs on the FX thread and returns the conversion to run on the worker. */
+    private final Supplier<Supplier<String>> snapshot;
+
+    /** Receives the text of the latest result on the FX thread. */
+    private final Consumer<String> publisher;
+
+    /** Waits for the input to settle. */
+    private final PauseTransition debounce = new PauseTransition(DELAY);
+
+    /** Incremented by every change and cancellation; results of older generations are stale. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /** Conversion waiting for the worker, or null if none is. */
+    private final AtomicReference<Task> pending = new AtomicReference<>();
+
+    /**
+     * Creates a live conversion.
+     *
+     * @param snapshot called on the FX thread when the input has settled; returns the conversion to run
+     *                 off the FX thread, which must not touch the scene graph
+     * @param publisher called on the FX thread with the result of the latest conversion
+     */
+    LiveConversion(Supplier<Supplier<String>> snapshot, Consumer<String> publisher) {
+        this.snapshot = snapshot;
+        this.publisher = publisher;
+        debounce.setOnFinished(event -> submit());
+    }
+
+    /**
+     * Records a change of the input, converting it once no further change follows within the delay.
+     * Must be called on the FX thread.
+     */
+    void changed() {
+        generation.incrementAndGet();
+        debounce.playFromStart();
+    }
+
+    /**
+     * Drops the pending and running conversions, so that their results are never published.
+     * Must be called on the FX thread.
+     */
+    void cancel() {
+        generation.incrementAndGet();
+        debounce.stop();
+    }
+
+    /**
+     * Hands the settled input to the worker, replacing a conversion it has not started yet.
+     */
+    private void submit() {
+        Task task = new Task(generation.get(), snapshot.get());
+        if (pending.getAndSet(task) == null) {
+            Worker.EXECUTOR.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs the latest conversion on the worker and publishes its result unless it went stale meanwhile.
+     */
+    private void drain() {
+        Task task = pending.getAndSet(null);
+        if (task == null || task.generation != generation.get()) {
+            return;
+        }
+        String result = task.conversion.get();
+        Platform.runLater(() -> {
+            if (task.generation == generation.get()) {
+                publisher.accept(result);
+            }
+        });
+    }
+
+    /**
+     * A conversion of the input as it was in one generation.
+     */
+    private static final class Task {
+
+        /** Generation of the input captured by the conversion. */
+        final long generation;
+
+        /** The conversion of the captured input. */
+        final Supplier<String> conversion;
+
+        /**
+         * Creates a task.
+         *
+         * @param generation the generation of the captured input
+         * @param conversion the conversion of the captured input
+         */
+        Task(long generation, Supplier<String> conversion) {
+            this.generation = generation;
+            this.conversion = conversion;
+        }
+    }
+
+    /**
+     * The single daemon thread running the live conversions of every view, created on first use.
+     */
+    private static final class Worker {
+
+        /** Executor of the worker thread. */
+        static final Executor EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-conversion");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -4,9 +4,9 @@ package Controller;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import Model.Dimension;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Parent;
@@ -16,7 +16,6 @@ import javafx.scene.control.Tooltip;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.input.KeyCombination;
-import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 
@@ -30,6 +29,9 @@ import javafx.stage.Stage;
  * @version 1.0
  */
 public class MainMenuController implements Initializable {
+
+    /** Resource path of the main menu view. */
+    public static final String VIEW = "/View/MainMenu.fxml";
     
     /** The primary stage of the application, used to manage the main window */
     @FXML
@@ -65,44 +67,47 @@ public class MainMenuController implements Initializable {
      * Switches the application view to the Length conversion scene.
      * 
      * @param e the ActionEvent triggered by the user interaction that initiated the switch
-     * @throws IOException if the FXML file for the Length scene cannot be loaded
+     * @throws IOException if the conversion view cannot be loaded
      */
     public void switchToLength(ActionEvent e) throws IOException {
-        Parent root = FXMLLoader.load(getClass().getResource("/View/Length.fxml"));
-        stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-        scene = new Scene(root);
-        stage.setScene(scene);
-        stage.show();
+        showConverter(e, Dimension.LENGTH);
     }
 
     /**
      * Switches the application view to the Weight conversion scene.
      * 
      * @param e the ActionEvent triggered by the user interaction that initiated the switch
-     * @throws IOException if the FXML file for the Weight scene cannot be loaded
+     * @throws IOException if the conversion view cannot be loaded
      */
     public void switchToWeight(ActionEvent e) throws IOException {
-        Parent root = FXMLLoader.load(getClass().getResource("/View/Weight.fxml"));
-        stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-        scene = new Scene(root);
-        stage.setScene(scene);
-        stage.show();
+        showConverter(e, Dimension.WEIGHT);
     }
 
     /**
      * Switches the application view to the Temperature conversion scene.
      * 
      * @param e the ActionEvent triggered by the user interaction that initiated the switch
-     * @throws IOException if the FXML file for the Temperature scene cannot be loaded
+     * @throws IOException if the conversion view cannot be loaded
      */
     public void switchToTemperature(ActionEvent e) throws IOException {
-        Parent root = FXMLLoader.load(getClass().getResource("/View/Temperature.fxml"));
-        stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-        scene = new Scene(root);
-        stage.setScene(scene);
-        stage.show();
+        showConverter(e, Dimension.TEMPERATURE);
     }
     
+    /**
+     * Shows the conversion view for the given dimension. The view is shared by every
+     * dimension, so only its units and history change.
+     *
+     * @param e the ActionEvent triggered by the user interaction that initiated the switch
+     * @param dimension the dimension to convert between
+     * @throws IOException if the conversion view cannot be loaded
+     */
+    private void showConverter(ActionEvent e, Dimension dimension) throws IOException {
+        stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
+        ConverterController converter = ViewCache.getController(ConverterController.VIEW);
+        converter.setDimension(dimension);
+        ViewCache.show(stage, ConverterController.VIEW);
+    }
+
     /**
     * Closes the application window when the exit action is triggered.
     *
@@ -123,77 +128,30 @@ public class MainMenuController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         
-        exitButton.sceneProperty().addListener((observable, oldScene, newScene) -> {
-            if (newScene != null) {
-                KeyCombination keyCombination = new KeyCodeCombination(KeyCode.E, KeyCombination.CONTROL_DOWN);
-                newScene.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
-                    if (keyCombination.match(event)) {
-                        exitButton.fire();
-                        event.consume();
-                    }
-                });
-            }
-        });
-        
-        lengthButton.sceneProperty().addListener((observable, oldScene, newScene) -> {
-            if (newScene != null) {
-                KeyCombination keyCombination = new KeyCodeCombination(KeyCode.L, KeyCombination.CONTROL_DOWN);
-                newScene.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
-                    if (keyCombination.match(event)) {
-                        lengthButton.fire();
-                        event.consume();
-                    }
-                });
-            }
-        });
-        
-        weightButton.sceneProperty().addListener((observable, oldScene, newScene) -> {
-            if (newScene != null) {
-                KeyCombination keyCombination = new KeyCodeCombination(KeyCode.W, KeyCombination.CONTROL_DOWN);
-                newScene.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
-                    if (keyCombination.match(event)) {
-                        weightButton.fire();
-                        event.consume();
-                    }
-                });
-            }
-        });
-        
-        temperatureButton.sceneProperty().addListener((observable, oldScene, newScene) -> {
-            if (newScene != null) {
-                KeyCombination keyCombination = new KeyCodeCombination(KeyCode.T, KeyCombination.CONTROL_DOWN);
-                newScene.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
-                    if (keyCombination.match(event)) {
-                        temperatureButton.fire();
-                        event.consume();
-                    }
-                });
-            }
-        });
+        Shortcuts.bind(exitButton, new KeyCodeCombination(KeyCode.E, KeyCombination.CONTROL_DOWN));
+        Shortcuts.bind(lengthButton, new KeyCodeCombination(KeyCode.L, KeyCombination.CONTROL_DOWN));
+        Shortcuts.bind(weightButton, new KeyCodeCombination(KeyCode.W, KeyCombination.CONTROL_DOWN));
+        Shortcuts.bind(temperatureButton, new KeyCodeCombination(KeyCode.T, KeyCombination.CONTROL_DOWN));
         
         Tooltip exitButtonTooltip = new Tooltip("Press button to exit (CTRL + E)");
-        exitButtonTooltip.setStyle("-fx-background-color: #FFFFFF; -fx-text-fill: #00FF00; -fx-padding: 0px; -fx-background-radius: 5px; -fx-font-size: 17px;");
         exitButton.setTooltip(exitButtonTooltip);
         
         exitButton.setOnMouseEntered(event -> showExitButtonTooltipIfVisible());
         exitButton.setOnMouseExited(event -> exitButtonTooltip.hide());
         
         Tooltip lengthButtonTooltip = new Tooltip("Press the button to go to change the length conversion (CTRL + L)");
-        lengthButtonTooltip.setStyle("-fx-background-color: #FFFFFF; -fx-text-fill: #00FF00; -fx-padding: 0px; -fx-background-radius: 5px; -fx-font-size: 17px;");
         lengthButton.setTooltip(lengthButtonTooltip);
         
         lengthButton.setOnMouseEntered(event -> showLengthButtonTooltipIfVisible());
         lengthButton.setOnMouseExited(event -> lengthButtonTooltip.hide());
         
         Tooltip weightButtonTooltip = new Tooltip("Press the button to go to change the weight conversion (CTRL + W)");
-        weightButtonTooltip.setStyle("-fx-background-color: #FFFFFF; -fx-text-fill: #00FF00; -fx-padding: 0px; -fx-background-radius: 5px; -fx-font-size: 17px;");
         weightButton.setTooltip(weightButtonTooltip);
         
         weightButton.setOnMouseEntered(event -> showWeightButtonTooltipIfVisible());
         weightButton.setOnMouseExited(event -> weightButtonTooltip.hide());
         
         Tooltip temperatureButtonTooltip = new Tooltip("Press the button to go to change the temperature conversion (CTRL + T)");
-        temperatureButtonTooltip.setStyle("-fx-background-color: #FFFFFF; -fx-text-fill: #00FF00; -fx-padding: 0px; -fx-background-radius: 5px; -fx-font-size: 17px;");
         temperatureButton.setTooltip(temperatureButtonTooltip);
         
         lengthButton.setAccessibleText("Length conversion button");
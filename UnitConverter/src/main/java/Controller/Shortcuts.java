@@ -0,0 +1,46 @@
+package Controller;
+
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.input.KeyCombination;
+
+/**
+ * Keyboard shortcuts of the views, registered as accelerators of the scene a view is shown in.
+ * Views share the stage's scene, so a shortcut is added to the scene's accelerator map when
+ * its button is attached to the scene and removed again when the view is swapped out.
+ * The scene therefore only ever holds the shortcuts of the view it currently shows.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+final class Shortcuts {
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Shortcuts() {
+    }
+
+    /**
+     * Binds a key combination to a button, so that pressing it fires the button.
+     * Must be called once per button, when its view is initialized.
+     *
+     * @param button the button fired by the shortcut
+     * @param keys the key combination of the shortcut
+     */
+    static void bind(Button button, KeyCombination keys) {
+        Runnable action = button::fire;
+        button.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.getAccelerators().remove(keys, action);
+            }
+            if (newScene != null) {
+                newScene.getAccelerators().put(keys, action);
+            }
+        });
+        Scene scene = button.getScene();
+        if (scene != null) {
+            scene.getAccelerators().put(keys, action);
+        }
+    }
+}
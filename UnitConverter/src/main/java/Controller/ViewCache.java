@@ -0,0 +1,141 @@
+package Controller;
+
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import polsl.ConverterMetrics;
+import polsl.SceneSwitchEvent;
+import polsl.ViewLoadEvent;
+
+/**
+ * Cache of loaded FXML views, keyed by the resource path of the FXML file.
+ * Each view, with its controller and conversion history, is built once and reused.
+ * Navigation swaps the root of the stage's existing scene instead of parsing the FXML
+ * again and creating a new scene.
+ * All methods must be called on the JavaFX application thread, because the views create
+ * controls such as tooltips that belong to that thread. Loads and switches emit
+ * {@link ViewLoadEvent}s and {@link SceneSwitchEvent}s for flight recordings.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ViewCache {
+
+    /** Logger used to report scene-switch latency. */
+    private static final Logger LOGGER = System.getLogger(ViewCache.class.getName());
+
+    /** Loaded views, keyed by FXML resource path. */
+    private static final Map<String, Parent> VIEWS = new HashMap<>();
+
+    /** Controllers of the loaded views, keyed by FXML resource path. */
+    private static final Map<String, Object> CONTROLLERS = new HashMap<>();
+
+    /** Duration of the most recent scene switch, in microseconds. */
+    private static long lastSwitchMicros;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private ViewCache() {
+    }
+
+    /**
+     * Returns the root of a view, loading it on first use.
+     *
+     * @param path the resource path of the FXML file, e.g. "/View/Converter.fxml"
+     * @return the root node of the view
+     * @throws IOException if the FXML file cannot be found or loaded
+     */
+    public static Parent get(String path) throws IOException {
+        Parent root = VIEWS.get(path);
+        if (root == null) {
+            URL location = ViewCache.class.getResource(path);
+            if (location == null) {
+                throw new IOException("View not found: " + path);
+            }
+            ViewLoadEvent event = new ViewLoadEvent();
+            event.begin();
+            FXMLLoader loader = new FXMLLoader(location);
+            root = loader.load();
+            event.commit(path);
+            VIEWS.put(path, root);
+            CONTROLLERS.put(path, loader.getController());
+        }
+        return root;
+    }
+
+    /**
+     * Returns the controller of a view, loading the view on first use.
+     *
+     * @param <T> the type of the controller
+     * @param path the resource path of the FXML file
+     * @return the controller created for the view
+     * @throws IOException if the FXML file cannot be found or loaded
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T getController(String path) throws IOException {
+        get(path);
+        return (T) CONTROLLERS.get(path);
+    }
+
+    /**
+     * Schedules views to be loaded after the current event has been handled, one per
+     * application-thread task, so that the first navigation to them does not pay the loading cost.
+     *
+     * @param paths the resource paths of the FXML files to load
+     */
+    public static void preload(String... paths) {
+        for (String path : paths) {
+            Platform.runLater(() -> {
+                try {
+                    get(path);
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            });
+        }
+    }
+
+    /**
+     * Shows a view in the given stage, reusing the stage's scene when it has one.
+     *
+     * @param stage the stage to show the view in
+     * @param path the resource path of the FXML file
+     * @throws IOException if the view has not been loaded yet and cannot be loaded
+     */
+    public static void show(Stage stage, String path) throws IOException {
+        SceneSwitchEvent event = new SceneSwitchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Parent root = get(path);
+        Scene scene = stage.getScene();
+        if (scene == null) {
+            stage.setScene(new Scene(root));
+        } else if (scene.getRoot() != root) {
+            scene.setRoot(root);
+        }
+        stage.show();
+        long nanos = System.nanoTime() - start;
+        ConverterMetrics.get().recordSceneSwitch(nanos);
+        event.commit(path);
+        lastSwitchMicros = nanos / 1000;
+        LOGGER.log(Level.DEBUG, "Switched to {0} in {1} us", path, lastSwitchMicros);
+    }
+
+    /**
+     * Returns the duration of the most recent scene switch.
+     *
+     * @return the duration in microseconds, including loading the view if it was not cached
+     */
+    public static long getLastSwitchMicros() {
+        return lastSwitchMicros;
+    }
+}
@@ -11,6 +11,13 @@ package Exceptions;
  */
 public class NegativeValueException extends Exception {
     
+    /** 
+     * Whether exceptions created by {@link #forValue(double)} record a stack trace.
+     * Set the system property {@code unitconverter.stacklessExceptions} to true to skip
+     * {@code fillInStackTrace}, which dominates the cost of rejecting a value.
+     */
+    private static final boolean STACK_TRACES = !Boolean.getBoolean("unitconverter.stacklessExceptions");
+    
     /**
      * Constructs a new NegativeValueException with the specified detail message.
      * 
@@ -20,4 +27,27 @@ public class NegativeValueException extends Exception {
     public NegativeValueException(String message) {
         super(message);
     }
+    
+    /**
+     * Constructs a new NegativeValueException with the specified detail message,
+     * optionally without a stack trace.
+     * 
+     * @param message the detail message, saved for later retrieval by the 
+     *                {@link Throwable#getMessage()} method
+     * @param writableStackTrace whether the stack trace should be filled in
+     */
+    public NegativeValueException(String message, boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
+    }
+    
+    /**
+     * Creates the exception thrown by the models for a rejected value.
+     * The stack trace is recorded unless stackless exceptions are enabled.
+     * 
+     * @param value the rejected value
+     * @return a new exception describing the value
+     */
+    public static NegativeValueException forValue(double value) {
+        return new NegativeValueException("Value cannot be negative: " + value, STACK_TRACES);
+    }
 }
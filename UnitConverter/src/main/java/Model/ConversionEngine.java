@@ -0,0 +1,125 @@
+package Model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ConversionEngine class performs linear unit conversions using a precomputed
+ * transform matrix, copied from the transforms a {@link UnitRegistry} compiles for one
+ * dimension, which is the only source of unit definitions. Every unit is resolved once to a primitive unit ID, and every
+ * (from, to) pair of IDs maps to a single {@link LinearTransform}. Units that are exact
+ * integer multiples or fractions of the base unit convert in exact steps through it,
+ * rounding exactly as the original models did; other pairs cost one multiplication.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ConversionEngine {
+
+    /** Unit symbols indexed by unit ID. */
+    private final String[] units;
+
+    /** Lookup from unit symbol to unit ID. */
+    private final Map<String, Integer> ids;
+
+    /** ID of the base unit, used for unknown symbols. */
+    private final int baseId;
+
+    /** Dense transform table, transforms[from][to] converts a value in unit from to unit to. */
+    private final LinearTransform[][] transforms;
+
+    /**
+     * Constructs a ConversionEngine for a dimension of a frozen registry, copying the
+     * registry's compiled transforms. Unknown symbols resolve to the dimension's base unit.
+     *
+     * @param registry the frozen registry declaring the units
+     * @param dimension the name of the dimension, e.g. "Length"
+     * @throws IllegalStateException if the registry is not frozen
+     * @throws IllegalArgumentException if the dimension is not declared or any of its units has an offset
+     */
+    public ConversionEngine(UnitRegistry registry, String dimension) {
+        this.units = registry.units(dimension);
+        this.ids = new HashMap<>();
+        for (int i = 0; i < units.length; i++) {
+            ids.put(units[i], i);
+        }
+        this.baseId = ids.get(registry.baseUnit(dimension));
+        int n = units.length;
+        this.transforms = new LinearTransform[n][n];
+        for (int from = 0; from < n; from++) {
+            int fromId = registry.unitId(units[from]);
+            for (int to = 0; to < n; to++) {
+                int toId = registry.unitId(units[to]);
+                if (registry.offset(fromId, toId) != 0.0) {
+                    throw new IllegalArgumentException("Not a linear dimension: " + dimension);
+                }
+                transforms[from][to] = registry.transform(units[from], units[to]);
+            }
+        }
+    }
+
+    /**
+     * Resolves a unit symbol to its unit ID.
+     * Unknown symbols resolve to the base unit, matching the models' default case.
+     *
+     * @param unit the unit symbol (e.g., "cm")
+     * @return the unit ID
+     */
+    public int unitId(String unit) {
+        Integer id = ids.get(unit);
+        return id != null ? id : baseId;
+    }
+
+    /**
+     * Returns the unit ID for a symbol, or -1 if the symbol is not known to this engine.
+     *
+     * @param unit the unit symbol
+     * @return the unit ID, or -1 if unknown
+     */
+    public int indexOf(String unit) {
+        Integer id = ids.get(unit);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the unit symbol for a unit ID.
+     *
+     * @param id the unit ID
+     * @return the unit symbol
+     */
+    public String unit(int id) {
+        return units[id];
+    }
+
+    /**
+     * Returns the number of units known to this engine.
+     *
+     * @return the number of units
+     */
+    public int unitCount() {
+        return units.length;
+    }
+
+    /**
+     * Converts a value between two resolved units.
+     *
+     * @param value the value to convert
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the converted value
+     */
+    public double convert(double value, int fromId, int toId) {
+        return transforms[fromId][toId].apply(value);
+    }
+
+    /**
+     * Returns the precomputed transform for a pair of unit IDs.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the transform converting values in the source unit to the target unit
+     */
+    public LinearTransform transform(int fromId, int toId) {
+        return transforms[fromId][toId];
+    }
+}
@@ -0,0 +1,57 @@
+package Model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted around every conversion call of {@link Dimension}, so that conversion
+ * bursts can be lined up with GC pauses and UI stalls in a flight recording. Like every JFR event,
+ * it costs next to nothing while no recording enables it.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@Name("polsl.Conversion")
+@Label("Conversion")
+@Category({"Unit Converter", "Model"})
+@Description("A call converting one value or a batch of values")
+final class ConversionEvent extends Event {
+
+    /** Dimension the values were converted in. */
+    @Label("Dimension")
+    private String dimension;
+
+    /** Unit converted from. */
+    @Label("From Unit")
+    private String fromUnit;
+
+    /** Unit converted to. */
+    @Label("To Unit")
+    private String toUnit;
+
+    /** Number of values converted by the call. */
+    @Label("Batch Size")
+    private int values;
+
+    /**
+     * Ends the event and commits it with its unit pair and batch size, if a recording enables it.
+     *
+     * @param dimension the dimension the values were converted in
+     * @param fromUnit the unit converted from
+     * @param toUnit the unit converted to
+     * @param values the number of values converted
+     */
+    void commit(String dimension, String fromUnit, String toUnit, int values) {
+        end();
+        if (shouldCommit()) {
+            this.dimension = dimension;
+            this.fromUnit = fromUnit;
+            this.toUnit = toUnit;
+            this.values = values;
+            commit();
+        }
+    }
+}
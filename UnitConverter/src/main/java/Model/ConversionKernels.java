@@ -0,0 +1,275 @@
+package Model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The ConversionKernels class contains the array loops behind the bulk conversion methods
+ * of the models. The loops are kept as simple counted loops without calls or early exits,
+ * which lets the JIT compiler unroll and vectorize them; the same code runs as a plain
+ * scalar loop wherever vectorization is not available.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+final class ConversionKernels {
+
+    /** Number of values reduced together before the negative-value mask is inspected. */
+    private static final int BLOCK = 256;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private ConversionKernels() {
+    }
+
+    /**
+     * Finds the first negative value in a range of an array.
+     * Each block is reduced to a single flag without branching, and only a block whose
+     * flag is set is scanned again to locate the offending index.
+     *
+     * @param values the values to check
+     * @param offset the index of the first value to check
+     * @param length the number of values to check
+     * @return the index of the first negative value, or -1 if there is none
+     */
+    static int firstNegative(double[] values, int offset, int length) {
+        int end = offset + length;
+        for (int block = offset; block < end; block += BLOCK) {
+            int blockEnd = Math.min(block + BLOCK, end);
+            boolean negative = false;
+            for (int i = block; i < blockEnd; i++) {
+                negative |= values[i] < 0;
+            }
+            if (negative) {
+                for (int i = block; i < blockEnd; i++) {
+                    if (values[i] < 0) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Multiplies a range of values by a constant factor.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param factor the multiplier to apply
+     */
+    static void scale(double[] src, double[] dst, int offset, int length, double factor) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            dst[i] = src[i] * factor;
+        }
+    }
+
+    /**
+     * Divides a range of values by a constant divisor.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param divisor the divisor to apply
+     */
+    static void divide(double[] src, double[] dst, int offset, int length, double divisor) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            dst[i] = src[i] / divisor;
+        }
+    }
+
+    /**
+     * Applies {@code x * m1 / d1 * m2 / d2} to a range of values, rounding after each operation.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param m1 the multiplier of the first step
+     * @param d1 the divisor of the first step
+     * @param m2 the multiplier of the second step
+     * @param d2 the divisor of the second step
+     */
+    static void steps(double[] src, double[] dst, int offset, int length, double m1, double d1, double m2, double d2) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            dst[i] = src[i] * m1 / d1 * m2 / d2;
+        }
+    }
+
+    /**
+     * Applies {@code scale * x + offset} to a range of values, as a fused multiply-add rounded once.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param scale the multiplier to apply
+     * @param shift the constant to add after scaling
+     */
+    static void affine(double[] src, double[] dst, int offset, int length, double scale, double shift) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            dst[i] = Math.fma(scale, src[i], shift);
+        }
+    }
+
+    /**
+     * Multiplies a range of values by a constant factor, rejecting negative values without branching.
+     * Rejected values produce NaN and a {@link ConversionStatus#NEGATIVE_VALUE} status.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param factor the multiplier to apply
+     * @return the number of rejected values
+     */
+    static int scaleChecked(double[] src, double[] dst, byte[] status, int offset, int length, double factor) {
+        int end = offset + length;
+        int rejected = 0;
+        for (int i = offset; i < end; i++) {
+            double value = src[i];
+            boolean negative = value < 0;
+            dst[i] = negative ? Double.NaN : value * factor;
+            status[i] = negative ? ConversionStatus.NEGATIVE_VALUE : ConversionStatus.OK;
+            rejected += negative ? 1 : 0;
+        }
+        return rejected;
+    }
+
+    /**
+     * Applies {@code x * m1 / d1 * m2 / d2} to a range of values, rejecting negative values without branching.
+     * Rejected values produce NaN and a {@link ConversionStatus#NEGATIVE_VALUE} status.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param m1 the multiplier of the first step
+     * @param d1 the divisor of the first step
+     * @param m2 the multiplier of the second step
+     * @param d2 the divisor of the second step
+     * @return the number of rejected values
+     */
+    static int stepsChecked(double[] src, double[] dst, byte[] status, int offset, int length,
+            double m1, double d1, double m2, double d2) {
+        int end = offset + length;
+        int rejected = 0;
+        for (int i = offset; i < end; i++) {
+            double value = src[i];
+            boolean negative = value < 0;
+            dst[i] = negative ? Double.NaN : value * m1 / d1 * m2 / d2;
+            status[i] = negative ? ConversionStatus.NEGATIVE_VALUE : ConversionStatus.OK;
+            rejected += negative ? 1 : 0;
+        }
+        return rejected;
+    }
+
+    /**
+     * Applies {@code scale * x + shift} to a range of values, rejecting negative values without branching.
+     * Rejected values produce NaN and a {@link ConversionStatus#NEGATIVE_VALUE} status.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param scale the multiplier to apply
+     * @param shift the constant to add after scaling
+     * @return the number of rejected values
+     */
+    static int affineChecked(double[] src, double[] dst, byte[] status, int offset, int length, double scale, double shift) {
+        int end = offset + length;
+        int rejected = 0;
+        for (int i = offset; i < end; i++) {
+            double value = src[i];
+            boolean negative = value < 0;
+            dst[i] = negative ? Double.NaN : Math.fma(scale, value, shift);
+            status[i] = negative ? ConversionStatus.NEGATIVE_VALUE : ConversionStatus.OK;
+            rejected += negative ? 1 : 0;
+        }
+        return rejected;
+    }
+
+    /**
+     * Applies {@code scale * x + shift} in place to doubles stored in a buffer, in the buffer's byte order,
+     * optionally rejecting negative values without branching. Rejected values are replaced by NaN.
+     * Values are read and written with absolute accesses, so a direct buffer is converted without
+     * copying it to the heap and the buffer's position and limit are left unchanged.
+     *
+     * @param buffer the buffer holding the values
+     * @param offset the byte index of the first value
+     * @param length the number of values to convert
+     * @param scale the multiplier to apply
+     * @param shift the constant to add after scaling
+     * @param rejectNegative whether negative values are rejected
+     * @return the number of rejected values
+     */
+    static int affine(ByteBuffer buffer, int offset, int length, double scale, double shift, boolean rejectNegative) {
+        int end = offset + length * Double.BYTES;
+        int rejected = 0;
+        if (shift == 0.0) {
+            // A pure scale, so that -0.0 stays -0.0 as in the array kernels
+            for (int i = offset; i < end; i += Double.BYTES) {
+                double value = buffer.getDouble(i);
+                boolean negative = rejectNegative && value < 0;
+                buffer.putDouble(i, negative ? Double.NaN : value * scale);
+                rejected += negative ? 1 : 0;
+            }
+        } else {
+            for (int i = offset; i < end; i += Double.BYTES) {
+                double value = buffer.getDouble(i);
+                boolean negative = rejectNegative && value < 0;
+                buffer.putDouble(i, negative ? Double.NaN : Math.fma(scale, value, shift));
+                rejected += negative ? 1 : 0;
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Applies {@code x * m1 / d1 * m2 / d2} in place to doubles stored in a buffer, in the buffer's
+     * byte order, optionally rejecting negative values without branching, as
+     * {@link #affine(ByteBuffer, int, int, double, double, boolean)} does.
+     *
+     * @param buffer the buffer holding the values
+     * @param offset the byte index of the first value
+     * @param length the number of values to convert
+     * @param m1 the multiplier of the first step
+     * @param d1 the divisor of the first step
+     * @param m2 the multiplier of the second step
+     * @param d2 the divisor of the second step
+     * @param rejectNegative whether negative values are rejected
+     * @return the number of rejected values
+     */
+    static int steps(ByteBuffer buffer, int offset, int length, double m1, double d1, double m2, double d2,
+            boolean rejectNegative) {
+        int end = offset + length * Double.BYTES;
+        int rejected = 0;
+        if (m1 == 1 && m2 == 1 && d2 == 1) {
+            // A single division, the common case of a conversion to the base unit
+            for (int i = offset; i < end; i += Double.BYTES) {
+                double value = buffer.getDouble(i);
+                boolean negative = rejectNegative && value < 0;
+                buffer.putDouble(i, negative ? Double.NaN : value / d1);
+                rejected += negative ? 1 : 0;
+            }
+        } else {
+            for (int i = offset; i < end; i += Double.BYTES) {
+                double value = buffer.getDouble(i);
+                boolean negative = rejectNegative && value < 0;
+                buffer.putDouble(i, negative ? Double.NaN : value * m1 / d1 * m2 / d2);
+                rejected += negative ? 1 : 0;
+            }
+        }
+        return rejected;
+    }
+}
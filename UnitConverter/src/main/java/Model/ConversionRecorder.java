@@ -0,0 +1,41 @@
+package Model;
+
+/**
+ * The ConversionRecorder interface receives what {@link Dimension} converts, so that the
+ * application can collect metrics without the model depending on how they are published.
+ * A recorder is installed with {@link Dimension#setRecorder(ConversionRecorder)}; until then
+ * conversions are recorded by {@link #NONE}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public interface ConversionRecorder {
+
+    /** The recorder that discards everything. */
+    ConversionRecorder NONE = new ConversionRecorder() {
+        @Override
+        public void recordConversion(Dimension dimension, String fromUnit, String toUnit, long nanos) {
+        }
+
+        @Override
+        public void recordNegativeRejections(int count) {
+        }
+    };
+
+    /**
+     * Records a conversion call.
+     *
+     * @param dimension the dimension the values were converted in
+     * @param fromUnit the unit converted from
+     * @param toUnit the unit converted to
+     * @param nanos the duration of the call
+     */
+    void recordConversion(Dimension dimension, String fromUnit, String toUnit, long nanos);
+
+    /**
+     * Records values rejected for being negative.
+     *
+     * @param count the number of rejected values
+     */
+    void recordNegativeRejections(int count);
+}
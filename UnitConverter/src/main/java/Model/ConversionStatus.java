@@ -0,0 +1,23 @@
+package Model;
+
+/**
+ * The ConversionStatus class defines the status codes reported by the non-throwing
+ * conversion methods of the models, one per converted value.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ConversionStatus {
+
+    /** The value was converted. */
+    public static final byte OK = 0;
+
+    /** The value was rejected because it is negative; the result is NaN. */
+    public static final byte NEGATIVE_VALUE = 1;
+
+    /**
+     * Prevents instantiation of this constants class.
+     */
+    private ConversionStatus() {
+    }
+}
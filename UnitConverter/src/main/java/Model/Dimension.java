@@ -0,0 +1,421 @@
+package Model;
+
+import Exceptions.NegativeValueException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The Dimension enum describes each physical dimension supported by the application,
+ * together with its units and the model that converts between them.
+ * It lets callers that do not know the units in advance, such as the command line
+ * converter, dispatch conversions without a separate code path per model.
+ * Every conversion call is counted and timed by the installed {@link ConversionRecorder} and emits a {@link ConversionEvent}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public enum Dimension {
+
+    /** Lengths, converted by {@link LengthModel}. */
+    LENGTH("Length", LengthModel.units()) {
+        private final LengthModel model = new LengthModel();
+
+        @Override
+        double convertValue(double value, String fromUnit, String toUnit) throws NegativeValueException {
+            return model.convert(value, fromUnit, toUnit);
+        }
+
+        @Override
+        void convertRange(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit)
+                throws NegativeValueException {
+            model.convert(src, dst, offset, length, fromUnit, toUnit);
+        }
+
+        @Override
+        int convertChecked(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit) {
+            return model.convert(src, dst, status, offset, length, fromUnit, toUnit);
+        }
+
+        @Override
+        public LinearTransform transform(String fromUnit, String toUnit) {
+            ConversionEngine engine = LengthModel.engine();
+            return engine.transform(engine.unitId(fromUnit), engine.unitId(toUnit));
+        }
+
+        @Override
+        public boolean acceptsNegative() {
+            return false;
+        }
+    },
+
+    /** Weights, converted by {@link WeightModel}. */
+    WEIGHT("Weight", WeightModel.units()) {
+        private final WeightModel model = new WeightModel();
+
+        @Override
+        double convertValue(double value, String fromUnit, String toUnit) throws NegativeValueException {
+            return model.convert(value, fromUnit, toUnit);
+        }
+
+        @Override
+        void convertRange(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit)
+                throws NegativeValueException {
+            model.convert(src, dst, offset, length, fromUnit, toUnit);
+        }
+
+        @Override
+        int convertChecked(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit) {
+            return model.convert(src, dst, status, offset, length, fromUnit, toUnit);
+        }
+
+        @Override
+        public LinearTransform transform(String fromUnit, String toUnit) {
+            ConversionEngine engine = WeightModel.engine();
+            return engine.transform(engine.unitId(fromUnit), engine.unitId(toUnit));
+        }
+
+        @Override
+        public boolean acceptsNegative() {
+            return false;
+        }
+    },
+
+    /** Temperatures, converted by {@link TemperatureModel}. */
+    TEMPERATURE("Temperature", TemperatureModel.units()) {
+        private final TemperatureModel model = new TemperatureModel();
+
+        @Override
+        double convertValue(double value, String fromUnit, String toUnit) {
+            return model.convert(value, fromUnit, toUnit);
+        }
+
+        @Override
+        void convertRange(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit) {
+            model.convert(src, dst, offset, length, fromUnit, toUnit);
+        }
+
+        @Override
+        int convertChecked(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit) {
+            return model.convert(src, dst, status, offset, length, fromUnit, toUnit);
+        }
+
+        @Override
+        public LinearTransform transform(String fromUnit, String toUnit) {
+            return model.transform(fromUnit, toUnit);
+        }
+
+        @Override
+        public boolean acceptsNegative() {
+            return true;
+        }
+    };
+
+    /** Recorder of every conversion call, shared by all dimensions. */
+    private static volatile ConversionRecorder recorder = ConversionRecorder.NONE;
+
+    /** Human-readable name of the dimension. */
+    private final String title;
+
+    /** Unit symbols of the dimension, in unit ID order. */
+    private final List<String> units;
+
+    /**
+     * Constructs a Dimension with the given name and units.
+     *
+     * @param title the human-readable name of the dimension
+     * @param units the unit symbols, in unit ID order
+     */
+    Dimension(String title, String[] units) {
+        this.title = title;
+        this.units = Collections.unmodifiableList(Arrays.asList(units));
+    }
+
+    /**
+     * Converts a single value from one unit of this dimension to another.
+     *
+     * @param value the value to be converted
+     * @param fromUnit the unit of the provided value
+     * @param toUnit the unit to convert the value to
+     * @return the converted value
+     * @throws NegativeValueException if the dimension rejects negative values and the value is negative
+     */
+    public double convert(double value, String fromUnit, String toUnit) throws NegativeValueException {
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return convertValue(value, fromUnit, toUnit);
+        } catch (NegativeValueException ex) {
+            recorder.recordNegativeRejections(1);
+            throw ex;
+        } finally {
+            record(event, start, fromUnit, toUnit, 1);
+        }
+    }
+
+    /**
+     * Converts a single value as {@link #convert(double, String, String)} does, without recording
+     * the call: no metrics, rejections or {@link ConversionEvent} are recorded. Meant for previews
+     * computed while the user types, which are not conversions the user asked for.
+     *
+     * @param value the value to be converted
+     * @param fromUnit the unit of the provided value
+     * @param toUnit the unit to convert the value to
+     * @return the converted value
+     * @throws NegativeValueException if the dimension rejects negative values and the value is negative
+     */
+    public double preview(double value, String fromUnit, String toUnit) throws NegativeValueException {
+        return convertValue(value, fromUnit, toUnit);
+    }
+
+    /**
+     * Converts a range of values as {@link #convert(double[], double[], int, int, String, String)}
+     * does, without recording the call. Meant for conversions the user did not ask for, such as
+     * the warm-up at startup.
+     *
+     * @param src the values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @throws NegativeValueException if the dimension rejects negative values and any value is negative
+     */
+    public void preview(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit)
+            throws NegativeValueException {
+        convertRange(src, dst, offset, length, fromUnit, toUnit);
+    }
+
+    /**
+     * Converts a range of values from one unit of this dimension to another.
+     *
+     * @param src the values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @throws NegativeValueException if the dimension rejects negative values and any value is negative
+     */
+    public void convert(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit)
+            throws NegativeValueException {
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            convertRange(src, dst, offset, length, fromUnit, toUnit);
+        } catch (NegativeValueException ex) {
+            recorder.recordNegativeRejections(1);
+            throw ex;
+        } finally {
+            record(event, start, fromUnit, toUnit, length);
+        }
+    }
+
+    /**
+     * Converts a range of values without throwing for rejected values.
+     * Each rejected value produces NaN in the target array and a status other than
+     * {@link ConversionStatus#OK} in the status array.
+     *
+     * @param src the values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @return the number of rejected values
+     */
+    public int convert(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit) {
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            int rejected = convertChecked(src, dst, status, offset, length, fromUnit, toUnit);
+            if (rejected > 0) {
+                recorder.recordNegativeRejections(rejected);
+            }
+            return rejected;
+        } finally {
+            record(event, start, fromUnit, toUnit, length);
+        }
+    }
+
+    /**
+     * Converts a single value, as {@link #convert(double, String, String)} does without recording metrics.
+     *
+     * @param value the value to be converted
+     * @param fromUnit the unit of the provided value
+     * @param toUnit the unit to convert the value to
+     * @return the converted value
+     * @throws NegativeValueException if the dimension rejects negative values and the value is negative
+     */
+    abstract double convertValue(double value, String fromUnit, String toUnit) throws NegativeValueException;
+
+    /**
+     * Converts a range of values, as {@link #convert(double[], double[], int, int, String, String)}
+     * does without recording metrics.
+     *
+     * @param src the values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @throws NegativeValueException if the dimension rejects negative values and any value is negative
+     */
+    abstract void convertRange(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit)
+            throws NegativeValueException;
+
+    /**
+     * Converts a range of values without throwing, as
+     * {@link #convert(double[], double[], byte[], int, int, String, String)} does without recording metrics.
+     *
+     * @param src the values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @return the number of rejected values
+     */
+    abstract int convertChecked(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit);
+
+    /**
+     * Returns the conversion between two units of this dimension as a single
+     * {@code scale * x + offset} transform, for callers that convert values themselves.
+     *
+     * @param fromUnit the unit of the values to convert
+     * @param toUnit the unit to convert the values to
+     * @return the transform for the unit pair
+     */
+    public abstract LinearTransform transform(String fromUnit, String toUnit);
+
+    /**
+     * Converts a decimal value exactly, without the rounding of double arithmetic,
+     * e.g. 0.3 cm to exactly 0.003 m. Values of up to 18 significant digits are converted
+     * without creating objects; see {@link FixedPointConverter} for when BigDecimal is used.
+     *
+     * @param value the value to be converted
+     * @param fromUnit the unit of the provided value
+     * @param toUnit the unit to convert the value to
+     * @param result the decimal receiving the converted value, may be the same as value
+     * @throws NegativeValueException if the dimension rejects negative values and the value is negative
+     * @throws IllegalArgumentException if a unit does not belong to this dimension
+     */
+    public void convertExact(FixedDecimal value, String fromUnit, String toUnit, FixedDecimal result)
+            throws NegativeValueException {
+        if (!hasUnit(fromUnit) || !hasUnit(toUnit)) {
+            throw new IllegalArgumentException("Cannot convert " + fromUnit + " to " + toUnit + " as a " + title);
+        }
+        ConversionEvent event = new ConversionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            if (!acceptsNegative() && value.signum() < 0) {
+                recorder.recordNegativeRejections(1);
+                throw NegativeValueException.forValue(value.doubleValue());
+            }
+            FixedPointConverter.standard().convert(value, fromUnit, toUnit, result);
+        } finally {
+            record(event, start, fromUnit, toUnit, 1);
+        }
+    }
+
+    /**
+     * Records a finished conversion call in the metrics and the flight recording.
+     *
+     * @param event the event begun with the call
+     * @param start the start of the call, from {@link System#nanoTime()}
+     * @param fromUnit the unit converted from
+     * @param toUnit the unit converted to
+     * @param values the number of values converted
+     */
+    private void record(ConversionEvent event, long start, String fromUnit, String toUnit, int values) {
+        recorder.recordConversion(this, fromUnit, toUnit, System.nanoTime() - start);
+        event.commit(title, fromUnit, toUnit, values);
+    }
+
+    /**
+     * Returns whether negative values are valid in this dimension.
+     *
+     * @return false if the dimension's model rejects negative values
+     */
+    public abstract boolean acceptsNegative();
+
+    /**
+     * Returns the human-readable name of this dimension.
+     *
+     * @return the name, e.g. "Length"
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the unit symbols of this dimension.
+     *
+     * @return an unmodifiable list of unit symbols
+     */
+    public List<String> getUnits() {
+        return units;
+    }
+
+    /**
+     * Returns the unit selected by default for this dimension.
+     *
+     * @return the base unit symbol
+     */
+    public String getDefaultUnit() {
+        return units.get(0);
+    }
+
+    /**
+     * Returns whether a unit symbol belongs to this dimension.
+     *
+     * @param unit the unit symbol
+     * @return true if the unit is one of this dimension's units
+     */
+    public boolean hasUnit(String unit) {
+        return units.contains(unit);
+    }
+
+    /**
+     * Installs the recorder of every conversion call made through the dimensions,
+     * replacing the previous one.
+     *
+     * @param recorder the recorder, {@link ConversionRecorder#NONE} to stop recording
+     * @throws NullPointerException if the recorder is null
+     */
+    public static void setRecorder(ConversionRecorder recorder) {
+        Dimension.recorder = Objects.requireNonNull(recorder);
+    }
+
+    /**
+     * Returns the installed recorder, for converters that apply the dimensions' transforms
+     * themselves and report what they reject to the same recorder.
+     *
+     * @return the recorder, {@link ConversionRecorder#NONE} if none is installed
+     */
+    public static ConversionRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Finds the dimension a unit symbol belongs to.
+     *
+     * @param unit the unit symbol
+     * @return the dimension of the unit, or null if no dimension declares it
+     */
+    public static Dimension ofUnit(String unit) {
+        for (Dimension dimension : values()) {
+            if (dimension.hasUnit(unit)) {
+                return dimension;
+            }
+        }
+        return null;
+    }
+}
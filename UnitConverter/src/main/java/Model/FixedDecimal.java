@@ -0,0 +1,264 @@
+package Model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The FixedDecimal class is a mutable exact decimal, {@code unscaled * 10^-scale}, for the
+ * exact conversion mode. Values with up to 18 significant digits are held as a {@code long}
+ * and an {@code int} scale, so parsing, converting and printing them creates no objects; a
+ * holder can be reused for every value of a stream. Longer values, and results that overflow
+ * a {@code long}, are held as a {@link BigDecimal} instead.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class FixedDecimal {
+
+    /** Number of significant digits that always fit in a long. */
+    private static final int COMPACT_DIGITS = 18;
+
+    /** Largest accepted magnitude of a parsed exponent. */
+    private static final int MAX_EXPONENT = 999_999;
+
+    /** Unscaled value, when the value is compact. */
+    long unscaled;
+
+    /** Power of ten the unscaled value is divided by, when the value is compact. */
+    int scale;
+
+    /** The value, when it is not compact; null otherwise. */
+    BigDecimal big;
+
+    /** Scratch space for the digits of the unscaled value. */
+    private final char[] digits = new char[20];
+
+    /**
+     * Constructs a FixedDecimal holding zero.
+     */
+    public FixedDecimal() {
+    }
+
+    /**
+     * Sets the value to {@code unscaled * 10^-scale}.
+     *
+     * @param unscaled the unscaled value
+     * @param scale the number of digits after the decimal point, negative for multiples of powers of ten
+     * @return this decimal
+     */
+    public FixedDecimal set(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+        this.big = null;
+        return this;
+    }
+
+    /**
+     * Sets the value, keeping it compact if its unscaled value fits in a long.
+     *
+     * @param value the value
+     * @return this decimal
+     */
+    public FixedDecimal set(BigDecimal value) {
+        BigInteger unscaledValue = value.unscaledValue();
+        if (unscaledValue.bitLength() < Long.SIZE) {
+            return set(unscaledValue.longValue(), value.scale());
+        }
+        big = value;
+        return this;
+    }
+
+    /**
+     * Sets the value to the decimal written in a character sequence. The syntax is an optional
+     * sign, digits with an optional decimal point and an optional exponent, surrounded by optional
+     * whitespace, e.g. {@code -12.50} or {@code 2.5e-3}.
+     *
+     * @param text the text to parse
+     * @return false, leaving the value unchanged, if the text is not a decimal number
+     */
+    public boolean parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Sets the value to the decimal written in a range of a character sequence.
+     *
+     * @param text the text to parse
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return false, leaving the value unchanged, if the range is not a decimal number
+     * @throws IndexOutOfBoundsException if the range does not fit in the text
+     */
+    public boolean parse(CharSequence text, int start, int end) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + text.length());
+        }
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i++) == '-';
+        }
+        long value = 0;
+        int significant = 0;
+        int fractionDigits = 0;
+        int digitCount = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digitCount++;
+                if (point) {
+                    fractionDigits++;
+                }
+                if (significant > 0 || ch != '0') {
+                    significant++;
+                }
+                value = value * 10 + (ch - '0');
+            } else if (ch == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digitCount == 0) {
+            return false;
+        }
+        int exponent = 0;
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i++) == '-';
+            }
+            int exponentStart = i;
+            for (; i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9'; i++) {
+                exponent = exponent * 10 + (text.charAt(i) - '0');
+                if (exponent > MAX_EXPONENT) {
+                    return false;
+                }
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+        if (i != end) {
+            return false;
+        }
+        if (significant > COMPACT_DIGITS) {
+            set(new BigDecimal(text.subSequence(start, end).toString()));
+        } else {
+            set(negative ? -value : value, fractionDigits - exponent);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sign of the value.
+     *
+     * @return -1, 0 or 1 as the value is negative, zero or positive
+     */
+    public int signum() {
+        return big != null ? big.signum() : Long.signum(unscaled);
+    }
+
+    /**
+     * Returns whether the value is held as a long and a scale rather than as a {@link BigDecimal}.
+     *
+     * @return true if the value is compact
+     */
+    public boolean isCompact() {
+        return big == null;
+    }
+
+    /**
+     * Returns the value as a BigDecimal.
+     *
+     * @return the value
+     */
+    public BigDecimal toBigDecimal() {
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Returns the value rounded to the nearest double.
+     *
+     * @return the value as a double
+     */
+    public double doubleValue() {
+        return toBigDecimal().doubleValue();
+    }
+
+    /**
+     * Appends the value in plain notation, without trailing zeros after the decimal point,
+     * e.g. {@code 0.003}, {@code 2.5} or {@code 250}. Compact values are appended without
+     * creating objects.
+     *
+     * @param builder the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        if (big != null) {
+            return builder.append(big.stripTrailingZeros().toPlainString());
+        }
+        long value = unscaled;
+        int exponent = scale;
+        while (exponent > 0 && value % 10 == 0) {
+            value /= 10;
+            exponent--;
+        }
+        if (value == 0) {
+            return builder.append('0');
+        }
+        if (value < 0) {
+            builder.append('-');
+        }
+        // Digits of the magnitude, written backwards from the negative value so that Long.MIN_VALUE works
+        int length = 0;
+        for (long rest = value < 0 ? value : -value; rest != 0; rest /= 10) {
+            digits[length++] = (char) ('0' - rest % 10);
+        }
+        if (exponent <= 0) {
+            for (int i = length - 1; i >= 0; i--) {
+                builder.append(digits[i]);
+            }
+            for (int i = exponent; i < 0; i++) {
+                builder.append('0');
+            }
+            return builder;
+        }
+        if (length <= exponent) {
+            builder.append("0.");
+            for (int i = length; i < exponent; i++) {
+                builder.append('0');
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                builder.append(digits[i]);
+            }
+            return builder;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            builder.append(digits[i]);
+            if (i == exponent) {
+                builder.append('.');
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the value in plain notation, as written by {@link #appendTo(StringBuilder)}.
+     *
+     * @return the value as text
+     */
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(24)).toString();
+    }
+}
@@ -0,0 +1,223 @@
+package Model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * The FixedPointConverter class converts {@link FixedDecimal} values exactly, using the exact
+ * coefficients compiled by a {@link UnitRegistry}. Every unit pair is planned once: a pair whose
+ * multiplier is a power of ten, such as centimetres to metres, only moves the decimal point; any
+ * other terminating pair is computed in {@code long} arithmetic on the unscaled values; the few
+ * pairs whose quotients do not terminate, such as Fahrenheit to Celsius, divide in BigDecimal.
+ * <p>
+ * Long arithmetic is overflow-checked, and an overflowing conversion is redone in BigDecimal,
+ * so results are always exact. A BigDecimal division is exact as well whenever the result has
+ * a finite decimal expansion, as 212 F to C does, and is otherwise rounded to 34 significant digits.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+final class FixedPointConverter {
+
+    /** Precision of the quotients that do not terminate. */
+    private static final MathContext MC = MathContext.DECIMAL128;
+
+    /** Powers of ten that fit in a long. */
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    /** The registry whose units are converted. */
+    private final UnitRegistry registry;
+
+    /** Number of unit IDs of the registry. */
+    private final int unitCount;
+
+    /** Conversion plan of every unit pair, indexed by {@code fromId * unitCount + toId}; null between dimensions. */
+    private final Plan[] plans;
+
+    /**
+     * Constructs a FixedPointConverter for the units of a frozen registry.
+     *
+     * @param registry the registry providing the exact coefficients
+     * @throws IllegalStateException if the registry is not frozen
+     */
+    FixedPointConverter(UnitRegistry registry) {
+        if (!registry.isFrozen()) {
+            throw new IllegalStateException("Registry is not frozen");
+        }
+        this.registry = registry;
+        this.unitCount = registry.unitCount();
+        this.plans = new Plan[unitCount * unitCount];
+        for (int from = 0; from < unitCount; from++) {
+            for (int to = 0; to < unitCount; to++) {
+                if (registry.dimensionOf(registry.unit(from)).equals(registry.dimensionOf(registry.unit(to)))) {
+                    plans[from * unitCount + to] = new Plan(registry.decimalScale(from, to),
+                            registry.decimalOffset(from, to), registry.decimalDivisor(from, to));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the converter of the standard registry.
+     *
+     * @return the shared converter of {@link UnitRegistry#standard()}
+     */
+    static FixedPointConverter standard() {
+        return Standard.CONVERTER;
+    }
+
+    /**
+     * Converts a value exactly between two units of the same dimension.
+     *
+     * @param value the value to be converted
+     * @param fromUnit the unit of the provided value
+     * @param toUnit the unit to convert the value to
+     * @param result the decimal receiving the converted value, may be the same as value
+     * @throws IllegalArgumentException if a unit is unknown or the units belong to different dimensions
+     */
+    void convert(FixedDecimal value, String fromUnit, String toUnit, FixedDecimal result) {
+        int from = registry.unitId(fromUnit);
+        int to = registry.unitId(toUnit);
+        Plan plan = from < 0 || to < 0 ? null : plans[from * unitCount + to];
+        if (plan == null) {
+            throw new IllegalArgumentException("Cannot convert " + fromUnit + " to " + toUnit);
+        }
+        if (value.big == null && plan.kind != Plan.DIVIDE) {
+            try {
+                convertCompact(plan, value.unscaled, value.scale, result);
+                return;
+            } catch (ArithmeticException ex) {
+                // The unscaled result overflows a long; redo the conversion in BigDecimal
+            }
+        }
+        BigDecimal x = plan.scale.multiply(value.toBigDecimal()).add(plan.offset);
+        if (plan.kind == Plan.DIVIDE) {
+            // The quotient terminates exactly when the factors of the divisor other than 2 and 5 divide the dividend
+            boolean terminates = plan.divisorFactor.equals(BigInteger.ONE)
+                    || x.unscaledValue().mod(plan.divisorFactor).signum() == 0;
+            x = terminates ? x.divide(plan.divisor) : x.divide(plan.divisor, MC);
+        }
+        result.set(x);
+    }
+
+    /**
+     * Converts a compact value in long arithmetic.
+     *
+     * @param plan the plan of the unit pair, not {@link Plan#DIVIDE}
+     * @param unscaled the unscaled input value
+     * @param scale the scale of the input value
+     * @param result the decimal receiving the converted value
+     * @throws ArithmeticException if an intermediate result overflows
+     */
+    private static void convertCompact(Plan plan, long unscaled, int scale, FixedDecimal result) {
+        int productScale = Math.addExact(scale, plan.scaleScale);
+        if (plan.kind == Plan.SHIFT) {
+            result.set(unscaled, productScale);
+            return;
+        }
+        long product = Math.multiplyExact(unscaled, plan.scaleUnscaled);
+        if (plan.offsetUnscaled == 0) {
+            result.set(product, productScale);
+            return;
+        }
+        // Align both terms on the larger scale before adding them
+        long offset = plan.offsetUnscaled;
+        int resultScale = Math.max(productScale, plan.offsetScale);
+        product = Math.multiplyExact(product, pow10(resultScale - productScale));
+        offset = Math.multiplyExact(offset, pow10(resultScale - plan.offsetScale));
+        result.set(Math.addExact(product, offset), resultScale);
+    }
+
+    /**
+     * Returns a power of ten that fits in a long.
+     *
+     * @param exponent the exponent
+     * @return 10 to the exponent
+     * @throws ArithmeticException if the power does not fit in a long
+     */
+    private static long pow10(int exponent) {
+        if (exponent >= POW10.length) {
+            throw new ArithmeticException("10^" + exponent + " overflows a long");
+        }
+        return POW10[exponent];
+    }
+
+    /**
+     * The conversion of one unit pair, {@code (scale * x + offset) / divisor}, with the
+     * coefficients also split into unscaled longs where they fit.
+     */
+    private static final class Plan {
+
+        /** Only the decimal point moves: the multiplier is a power of ten and there is no offset. */
+        static final int SHIFT = 0;
+
+        /** A terminating {@code scale * x + offset} with long coefficients. */
+        static final int AFFINE = 1;
+
+        /** Computed in BigDecimal, because of a divisor or coefficients too long for a long. */
+        static final int DIVIDE = 2;
+
+        private final int kind;
+        private final BigDecimal scale;
+        private final BigDecimal offset;
+        private final BigDecimal divisor;
+        private final BigInteger divisorFactor;
+        private final long scaleUnscaled;
+        private final int scaleScale;
+        private final long offsetUnscaled;
+        private final int offsetScale;
+
+        Plan(BigDecimal scale, BigDecimal offset, BigDecimal divisor) {
+            this.scale = scale;
+            this.offset = offset;
+            this.divisor = divisor;
+            this.divisorFactor = withoutTwosAndFives(divisor.unscaledValue().abs());
+            this.scaleScale = scale.scale();
+            this.offsetScale = offset.scale();
+            boolean compact = divisor.compareTo(BigDecimal.ONE) == 0
+                    && scale.unscaledValue().bitLength() < Long.SIZE
+                    && offset.unscaledValue().bitLength() < Long.SIZE;
+            this.scaleUnscaled = compact ? scale.unscaledValue().longValue() : 0;
+            this.offsetUnscaled = compact ? offset.unscaledValue().longValue() : 0;
+            if (!compact) {
+                kind = DIVIDE;
+            } else if (scaleUnscaled == 1 && offsetUnscaled == 0) {
+                kind = SHIFT;
+            } else {
+                kind = AFFINE;
+            }
+        }
+    }
+
+    /**
+     * Returns a positive integer without its factors of 2 and 5. A quotient of decimals
+     * terminates exactly when this part of the divisor's unscaled value divides the dividend's.
+     *
+     * @param value the positive integer, e.g. the unscaled value of a divisor
+     * @return the value divided by every factor of 2 and 5 it has
+     */
+    static BigInteger withoutTwosAndFives(BigInteger value) {
+        BigInteger five = BigInteger.valueOf(5);
+        BigInteger rest = value.shiftRight(value.getLowestSetBit());
+        while (rest.mod(five).signum() == 0) {
+            rest = rest.divide(five);
+        }
+        return rest;
+    }
+
+    /**
+     * Holder of the standard converter, built when it is first requested.
+     */
+    private static final class Standard {
+
+        private static final FixedPointConverter CONVERTER = new FixedPointConverter(UnitRegistry.standard());
+    }
+}
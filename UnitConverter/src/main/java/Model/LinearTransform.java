@@ -0,0 +1,276 @@
+package Model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+
+/**
+ * The LinearTransform class represents a conversion of the form {@code scale * x + offset}.
+ * A conversion that would otherwise pass through an intermediate unit is compiled into a
+ * single transform, so applying it costs one fused multiply-add, rounded once.
+ * <p>
+ * Conversions without an offset whose ratios are powers of ten, such as centimetres to metres,
+ * are instead compiled into the steps the original models took through the base unit, each a
+ * multiplication or division by an exact integer: {@code x * m1 / d1 * m2 / d2}. A pair that
+ * involves the base unit is a single step, so its result is correctly rounded, e.g. 3.1 cm is
+ * 0.031 m rather than {@code 3.1 * 0.01}; other pairs round exactly as the original models did.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class LinearTransform {
+
+    /** The transform that leaves values unchanged. */
+    public static final LinearTransform IDENTITY = new LinearTransform(1.0, 0.0);
+
+    /** Largest integer factor exactly representable as a double. */
+    private static final BigDecimal MAX_FACTOR = BigDecimal.valueOf(1L << 53);
+
+    /** {@code scale * x + offset}. */
+    private static final int AFFINE = 0;
+
+    /** {@code x * m1}, with an exact multiplier. */
+    private static final int MULTIPLY = 1;
+
+    /** {@code x / d1}, with an exact divisor. */
+    private static final int DIVIDE = 2;
+
+    /** {@code x * m1 / d1 * m2 / d2}, with exact factors. */
+    private static final int STEPS = 3;
+
+    /** How this transform is computed. */
+    private final int kind;
+
+    /** The multiplier applied to each value, rounded for a transform computed in steps. */
+    private final double scale;
+
+    /** The constant added after scaling. */
+    private final double offset;
+
+    /** Exact factors of a transform computed in steps, 1 where unused. */
+    private final double m1;
+    private final double d1;
+    private final double m2;
+    private final double d2;
+
+    /**
+     * Constructs a LinearTransform with the given coefficients.
+     *
+     * @param scale the multiplier applied to each value
+     * @param offset the constant added after scaling
+     */
+    public LinearTransform(double scale, double offset) {
+        this(AFFINE, scale, offset, 1.0, 1.0, 1.0, 1.0);
+    }
+
+    private LinearTransform(int kind, double scale, double offset, double m1, double d1, double m2, double d2) {
+        this.kind = kind;
+        this.scale = scale;
+        this.offset = offset;
+        this.m1 = m1;
+        this.d1 = d1;
+        this.m2 = m2;
+        this.d2 = d2;
+    }
+
+    /**
+     * Returns the transform {@code x * m1 / d1 * m2 / d2}: two steps, each a multiplication or a
+     * division by an exact integer, such as a conversion to a base unit followed by one from it.
+     * A step whose multiplier and divisor are both 1 is skipped, so that a single step is rounded once.
+     *
+     * @param m1 the multiplier of the first step
+     * @param d1 the divisor of the first step
+     * @param m2 the multiplier of the second step
+     * @param d2 the divisor of the second step
+     * @return the transform
+     * @throws IllegalArgumentException if a factor is not a positive integer exactly representable as a double
+     */
+    public static LinearTransform steps(double m1, double d1, double m2, double d2) {
+        for (double factor : new double[] {m1, d1, m2, d2}) {
+            if (!(factor >= 1 && factor <= 0x1p53 && factor == Math.rint(factor))) {
+                throw new IllegalArgumentException("Not an exact integer factor: " + factor);
+            }
+        }
+        if (m1 == 1 && d1 == 1) {
+            m1 = m2;
+            d1 = d2;
+            m2 = 1;
+            d2 = 1;
+        }
+        double scale = new BigDecimal(m1).multiply(new BigDecimal(m2))
+                .divide(new BigDecimal(d1).multiply(new BigDecimal(d2)), MathContext.DECIMAL128).doubleValue();
+        int kind;
+        if (m2 == 1 && d2 == 1 && d1 == 1) {
+            kind = m1 == 1 ? AFFINE : MULTIPLY;
+        } else if (m2 == 1 && d2 == 1 && m1 == 1) {
+            kind = DIVIDE;
+        } else {
+            kind = STEPS;
+        }
+        return new LinearTransform(kind, scale, 0.0, m1, d1, m2, d2);
+    }
+
+    /**
+     * Returns the conversion between two units of an offset-free dimension as the two steps through
+     * its base unit, if both units are an integral multiple or an integral fraction of the base unit.
+     *
+     * @param fromNumerator the numerator of the size of the source unit in the base unit
+     * @param fromDenominator the denominator of the size of the source unit in the base unit
+     * @param toNumerator the numerator of the size of the target unit in the base unit
+     * @param toDenominator the denominator of the size of the target unit in the base unit
+     * @return the transform, or null if either size is not exact enough to be computed in steps
+     */
+    static LinearTransform exactSteps(BigDecimal fromNumerator, BigDecimal fromDenominator,
+            BigDecimal toNumerator, BigDecimal toDenominator) {
+        double[] toBase = exactStep(fromNumerator, fromDenominator);
+        double[] toSize = exactStep(toNumerator, toDenominator);
+        if (toBase == null || toSize == null) {
+            return null;
+        }
+        // Dividing by the size of the target unit is the inverse step of multiplying by it
+        return steps(toBase[0], toBase[1], toSize[1], toSize[0]);
+    }
+
+    /**
+     * Returns a positive ratio as a multiplication or a division by an exact integer.
+     *
+     * @param numerator the numerator of the ratio
+     * @param denominator the denominator of the ratio
+     * @return the multiplier and divisor, one of them 1, or null if neither is an exact integer
+     */
+    private static double[] exactStep(BigDecimal numerator, BigDecimal denominator) {
+        if (numerator.signum() <= 0 || denominator.signum() <= 0) {
+            return null;
+        }
+        if (numerator.remainder(denominator).signum() == 0) {
+            BigDecimal multiplier = numerator.divideToIntegralValue(denominator);
+            return multiplier.compareTo(MAX_FACTOR) <= 0 ? new double[] {multiplier.doubleValue(), 1} : null;
+        }
+        if (denominator.remainder(numerator).signum() == 0) {
+            BigDecimal divisor = denominator.divideToIntegralValue(numerator);
+            return divisor.compareTo(MAX_FACTOR) <= 0 ? new double[] {1, divisor.doubleValue()} : null;
+        }
+        return null;
+    }
+
+    /**
+     * Applies this transform to a value.
+     *
+     * @param value the value to transform
+     * @return the transformed value
+     */
+    public double apply(double value) {
+        switch (kind) {
+            case MULTIPLY:
+                return value * m1;
+            case DIVIDE:
+                return value / d1;
+            case STEPS:
+                return value * m1 / d1 * m2 / d2;
+            default:
+                return Math.fma(scale, value, offset);
+        }
+    }
+
+    /**
+     * Applies this transform to a range of values.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to transform
+     */
+    void apply(double[] src, double[] dst, int offset, int length) {
+        switch (kind) {
+            case MULTIPLY:
+                ConversionKernels.scale(src, dst, offset, length, m1);
+                break;
+            case DIVIDE:
+                ConversionKernels.divide(src, dst, offset, length, d1);
+                break;
+            case STEPS:
+                ConversionKernels.steps(src, dst, offset, length, m1, d1, m2, d2);
+                break;
+            default:
+                if (this.offset == 0.0) {
+                    ConversionKernels.scale(src, dst, offset, length, scale);
+                } else {
+                    ConversionKernels.affine(src, dst, offset, length, scale, this.offset);
+                }
+        }
+    }
+
+    /**
+     * Applies this transform to a range of values, rejecting negative values without branching.
+     * Rejected values produce NaN and a {@link ConversionStatus#NEGATIVE_VALUE} status.
+     *
+     * @param src the source values
+     * @param dst the array receiving the results, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to transform
+     * @return the number of rejected values
+     */
+    int applyChecked(double[] src, double[] dst, byte[] status, int offset, int length) {
+        if (kind == AFFINE) {
+            return this.offset == 0.0
+                    ? ConversionKernels.scaleChecked(src, dst, status, offset, length, scale)
+                    : ConversionKernels.affineChecked(src, dst, status, offset, length, scale, this.offset);
+        }
+        return ConversionKernels.stepsChecked(src, dst, status, offset, length, m1, d1, m2, d2);
+    }
+
+    /**
+     * Applies this transform in place to doubles stored in a buffer, in the buffer's byte order.
+     * Values are accessed by absolute index, so the buffer's position is neither used nor changed.
+     *
+     * @param buffer the buffer holding the values, typically a direct buffer
+     * @param offset the byte index of the first value
+     * @param length the number of values to transform
+     * @param rejectNegative whether negative values are replaced by NaN instead of being transformed,
+     *                       as the models of dimensions that reject negative values do
+     * @return the number of values replaced by NaN
+     * @throws IndexOutOfBoundsException if the values do not fit below the buffer's limit
+     */
+    public int apply(ByteBuffer buffer, int offset, int length, boolean rejectNegative) {
+        if (offset < 0 || length < 0 || length > (buffer.limit() - offset) / Double.BYTES) {
+            throw new IndexOutOfBoundsException(length + " doubles at " + offset + " out of bounds for limit " + buffer.limit());
+        }
+        switch (kind) {
+            case MULTIPLY:
+                return ConversionKernels.affine(buffer, offset, length, m1, 0.0, rejectNegative);
+            case DIVIDE:
+            case STEPS:
+                return ConversionKernels.steps(buffer, offset, length, m1, d1, m2, d2, rejectNegative);
+            default:
+                return ConversionKernels.affine(buffer, offset, length, scale, this.offset, rejectNegative);
+        }
+    }
+
+    /**
+     * Returns the multiplier of this transform.
+     *
+     * @return the scale, rounded to the nearest double for a transform computed in steps
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns the constant added by this transform.
+     *
+     * @return the offset
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns whether this transform leaves values unchanged.
+     *
+     * @return true if the scale is 1 and the offset is 0
+     */
+    public boolean isIdentity() {
+        return kind == AFFINE && scale == 1.0 && offset == 0.0;
+    }
+}
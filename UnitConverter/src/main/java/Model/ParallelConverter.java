@@ -0,0 +1,143 @@
+package Model;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The ParallelConverter class converts large arrays on a dedicated {@link ForkJoinPool}.
+ * The input range is split recursively into chunks small enough to stay in cache, and each
+ * chunk is validated and converted with the same kernels as the models' bulk methods.
+ * A negative value in a dimension that rejects negative values is reported as the lowest
+ * failing index rather than as an exception thrown from a worker thread.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ParallelConverter implements AutoCloseable {
+
+    /** Default chunk size: 16384 doubles, 128 KiB per array, which fits a typical L2 cache. */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+    /** Pool running the conversion tasks. */
+    private final ForkJoinPool pool;
+
+    /** Maximum number of values converted by a single task. */
+    private final int chunkSize;
+
+    /**
+     * Constructs a ParallelConverter with the default chunk size.
+     *
+     * @param parallelism the number of worker threads
+     */
+    public ParallelConverter(int parallelism) {
+        this(parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a ParallelConverter.
+     *
+     * @param parallelism the number of worker threads
+     * @param chunkSize the maximum number of values converted by a single task
+     * @throws IllegalArgumentException if either argument is not positive
+     */
+    public ParallelConverter(int parallelism, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Converts a range of values from one unit to another in parallel.
+     * If a negative value is found in a dimension that rejects negative values, the chunks
+     * without negative values are still converted, but the chunks containing them are not.
+     * The call is then recorded as one rejection, as a rejected range conversion of the dimension is.
+     *
+     * @param dimension the dimension both units belong to
+     * @param src the values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @return -1 if every value was converted, otherwise the lowest index of a rejected value
+     * @throws IndexOutOfBoundsException if the range does not fit in either array
+     */
+    public int convert(Dimension dimension, double[] src, double[] dst, int offset, int length,
+            String fromUnit, String toUnit) {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        LinearTransform transform = dimension.transform(fromUnit, toUnit);
+        ChunkTask task = new ChunkTask(src, dst, offset, length, transform, !dimension.acceptsNegative());
+        int rejected = length <= chunkSize ? task.compute() : pool.invoke(task);
+        if (rejected >= 0) {
+            Dimension.getRecorder().recordNegativeRejections(1);
+        }
+        return rejected;
+    }
+
+    /**
+     * Returns the number of worker threads of this converter.
+     *
+     * @return the parallelism of the underlying pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Shuts down the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Task converting a range of values, splitting it in half until it fits in a chunk.
+     * The result is -1 or the lowest index of a rejected value in the range.
+     */
+    private final class ChunkTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] src;
+        private final double[] dst;
+        private final int offset;
+        private final int length;
+        private final LinearTransform transform;
+        private final boolean rejectNegative;
+
+        ChunkTask(double[] src, double[] dst, int offset, int length, LinearTransform transform, boolean rejectNegative) {
+            this.src = src;
+            this.dst = dst;
+            this.offset = offset;
+            this.length = length;
+            this.transform = transform;
+            this.rejectNegative = rejectNegative;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (length > chunkSize) {
+                int half = length >>> 1;
+                ChunkTask left = new ChunkTask(src, dst, offset, half, transform, rejectNegative);
+                ChunkTask right = new ChunkTask(src, dst, offset + half, length - half, transform, rejectNegative);
+                left.fork();
+                int rightResult = right.compute();
+                int leftResult = left.join();
+                return leftResult >= 0 ? leftResult : rightResult;
+            }
+            if (rejectNegative) {
+                int negative = ConversionKernels.firstNegative(src, offset, length);
+                if (negative >= 0) {
+                    return negative;
+                }
+            }
+            transform.apply(src, dst, offset, length);
+            return -1;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package Model;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * The TemperatureModel class provides methods for converting temperatures
  * between different units: Celsius (C), Fahrenheit (F), and Kelvin (K).
@@ -8,8 +11,16 @@ package Model;
  */
 public class TemperatureModel {
 
+    /** Unit symbols supported by this model, indexed by unit ID. */
+    private static final String[] UNITS = UnitRegistry.standard().units("Temperature");
+
+    /** Fused transforms for every unit pair, taken from the standard {@link UnitRegistry} when the class is loaded. */
+    private static final LinearTransform[][] TRANSFORMS = compileTransforms();
+
     /**
      * Converts a temperature value from one unit to another.
+     * The value goes through the same cached {@link LinearTransform} as the bulk conversions,
+     * so a value converts to the same result either way.
      *
      * @param value the temperature value to be converted
      * @param fromUnit the unit of the provided temperature value (e.g., "C", "F", "K")
@@ -17,45 +28,109 @@ public class TemperatureModel {
      * @return the converted temperature value in the target unit
      */
     public double convert(double value, String fromUnit, String toUnit) {
-        double valueInCelsius = convertToCelsius(value, fromUnit);
-        return convertFromCelsius(valueInCelsius, toUnit);
+        LinearTransform transform = transform(fromUnit, toUnit);
+        return transform.isIdentity() ? value : transform.apply(value);
     }
 
     /**
-     * Converts a temperature value to Celsius based on the provided unit.
+     * Converts a range of temperature values from one unit to another.
+     * The unit pair is resolved once to its cached {@link LinearTransform}, which is
+     * then applied to every value as a single multiply-add.
      *
-     * @param value the temperature value to convert
-     * @param unit the unit of the provided temperature value (e.g., "C", "F", "K")
-     * @return the temperature value in Celsius
+     * @param src the temperature values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided temperature values (e.g., "C", "F", "K")
+     * @param toUnit the unit to convert the temperature values to (e.g., "C", "F", "K")
+     * @throws IndexOutOfBoundsException if the range does not fit in either array
      */
-    private double convertToCelsius(double value, String unit) {
-        switch (unit) {
-            case "F": // Fahrenheit
-                return (value - 32) * 5 / 9; // Convert Fahrenheit to Celsius
-            case "K": // Kelvin
-                return value - 273.15; // Convert Kelvin to Celsius
-            case "C": // Celsius
-            default:
-                return value; // Return value in Celsius if already in Celsius
+    public void convert(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit) {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        LinearTransform transform = transform(fromUnit, toUnit);
+        if (transform.isIdentity()) {
+            if (src != dst) {
+                System.arraycopy(src, offset, dst, offset, length);
+            }
+            return;
         }
+        transform.apply(src, dst, offset, length);
+    }
+
+    /**
+     * Converts a range of temperature values and reports a status code for each of them.
+     * Temperatures are never rejected, so every status is {@link ConversionStatus#OK}; the
+     * method exists so that all models share the same non-throwing bulk signature.
+     *
+     * @param src the temperature values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided temperature values (e.g., "C", "F", "K")
+     * @param toUnit the unit to convert the temperature values to (e.g., "C", "F", "K")
+     * @return the number of rejected values, always 0
+     * @throws IndexOutOfBoundsException if the range does not fit in any of the arrays
+     */
+    public int convert(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit) {
+        Objects.checkFromIndexSize(offset, length, status.length);
+        convert(src, dst, offset, length, fromUnit, toUnit);
+        Arrays.fill(status, offset, offset + length, ConversionStatus.OK);
+        return 0;
     }
 
     /**
-     * Converts a temperature value from Celsius to the specified target unit.
+     * Returns the fused transform converting temperatures from one unit to another.
+     * Unknown unit symbols are treated as Celsius, as in {@link #convert(double, String, String)}.
      *
-     * @param value the temperature value in Celsius to convert
-     * @param unit the target unit to convert to (e.g., "C", "F", "K")
-     * @return the temperature value in the target unit
+     * @param fromUnit the unit of the provided temperature values (e.g., "C", "F", "K")
+     * @param toUnit the unit to convert the temperature values to (e.g., "C", "F", "K")
+     * @return the cached transform for the unit pair
      */
-    private double convertFromCelsius(double value, String unit) {
-        switch (unit) {
-            case "F": // Fahrenheit
-                return (value * 9 / 5) + 32; // Convert Celsius to Fahrenheit
-            case "K": // Kelvin
-                return value + 273.15; // Convert Celsius to Kelvin
-            case "C": // Celsius
-            default:
-                return value; // Return value in Celsius if already in Celsius
+    public LinearTransform transform(String fromUnit, String toUnit) {
+        return TRANSFORMS[unitId(fromUnit)][unitId(toUnit)];
+    }
+
+    /**
+     * Resolves a temperature unit symbol to its unit ID.
+     *
+     * @param unit the unit symbol (e.g., "C", "F", "K")
+     * @return the unit ID, with unknown symbols resolved to Celsius
+     */
+    public int unitId(String unit) {
+        for (int i = 0; i < UNITS.length; i++) {
+            if (UNITS[i].equals(unit)) {
+                return i;
+            }
         }
+        return 0;
+    }
+
+    /**
+     * Collects the fused transforms for every unit pair from the standard registry, which
+     * composes the conversion to Celsius with the conversion from Celsius in decimal arithmetic,
+     * so each coefficient is rounded to double only once.
+     *
+     * @return the transform table indexed by source and target unit ID
+     */
+    private static LinearTransform[][] compileTransforms() {
+        UnitRegistry registry = UnitRegistry.standard();
+        LinearTransform[][] transforms = new LinearTransform[UNITS.length][UNITS.length];
+        for (int from = 0; from < UNITS.length; from++) {
+            for (int to = 0; to < UNITS.length; to++) {
+                transforms[from][to] = registry.transform(UNITS[from], UNITS[to]);
+            }
+        }
+        return transforms;
+    }
+
+    /**
+     * Returns the unit symbols supported by this model, in unit ID order.
+     * 
+     * @return a copy of the temperature unit symbols
+     */
+    public static String[] units() {
+        return UNITS.clone();
     }
 }
@@ -0,0 +1,644 @@
+package Model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The UnitRegistry class holds units declared at runtime as edges of a graph, one connected
+ * graph per dimension. Each edge defines a unit in terms of another, e.g. {@code in = 2.54 cm}
+ * or {@code F = 1.8 C + 32}, and each dimension has one base unit.
+ * <p>
+ * Units are declared while the registry is open. {@link #freeze()} walks each dimension's graph
+ * from its base unit, composes the edges along the way in decimal arithmetic, and compiles every
+ * pair of units of the dimension into a single {@code scale * x + offset} transform stored in dense
+ * per-dimension tables. After that the registry is read-only, and a conversion costs two array reads
+ * however many edges separate the two units in their definitions. Pairs of offset-free units whose
+ * sizes are exact integer multiples or fractions of the base unit, such as centimetres and kilometres,
+ * are instead compiled into the exact steps through the base unit, see {@link LinearTransform}.
+ * <p>
+ * Alongside the rounded double tables, every pair is also compiled exactly, as decimals
+ * {@code (scale * x + offset) / divisor} with a divisor of 1 whenever the quotients terminate,
+ * for the fixed-point conversions of {@link FixedPointConverter}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class UnitRegistry {
+
+    /** Precision used to compose edges; each compiled coefficient is rounded to double only once. */
+    private static final MathContext MC = MathContext.DECIMAL128;
+
+    /** Largest relative difference accepted between two paths to the same unit. */
+    private static final BigDecimal TOLERANCE = new BigDecimal("1e-24");
+
+    /** Lookup from unit symbol to unit ID; IDs are assigned in order of first declaration. */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /** Unit symbols indexed by unit ID. */
+    private final List<String> units = new ArrayList<>();
+
+    /** Base unit ID of each dimension, by dimension name, in order of declaration. */
+    private final Map<String, Integer> bases = new LinkedHashMap<>();
+
+    /** Declared edges, in order of declaration. */
+    private final List<Edge> edges = new ArrayList<>();
+
+    /** Whether {@link #freeze()} has been called. */
+    private boolean frozen;
+
+    /** Compiled tables, indexed by dimension index. */
+    private Table[] tables;
+
+    /** Dimension index of each unit, indexed by unit ID. */
+    private int[] dimensionIds;
+
+    /** Position of each unit within its dimension's tables, indexed by unit ID. */
+    private int[] localIds;
+
+    /** Dimension names, indexed by dimension index. */
+    private String[] dimensionNames;
+
+    /**
+     * Returns the frozen registry declaring the units the application has always supported:
+     * lengths based on meters, weights based on grams and temperatures based on Celsius.
+     *
+     * @return the shared standard registry
+     */
+    public static UnitRegistry standard() {
+        return Standard.REGISTRY;
+    }
+
+    /**
+     * Declares a dimension and its base unit.
+     *
+     * @param dimension the name of the dimension, e.g. "Length"
+     * @param unit the symbol of the base unit, e.g. "m"
+     * @throws IllegalStateException if the registry is frozen
+     * @throws IllegalArgumentException if the dimension is already declared
+     */
+    public void base(String dimension, String unit) {
+        checkOpen();
+        if (bases.containsKey(dimension)) {
+            throw new IllegalArgumentException("Dimension already declared: " + dimension);
+        }
+        bases.put(dimension, id(unit));
+    }
+
+    /**
+     * Declares a unit as a multiple of another unit: {@code 1 unit = scale reference}.
+     *
+     * @param unit the symbol of the unit, e.g. "in"
+     * @param scale the size of the unit expressed in the reference unit, e.g. 2.54
+     * @param reference the symbol of the reference unit, e.g. "cm"
+     * @throws IllegalStateException if the registry is frozen
+     * @throws IllegalArgumentException if the scale is zero or not finite
+     */
+    public void define(String unit, double scale, String reference) {
+        define(unit, scale, 0.0, reference);
+    }
+
+    /**
+     * Declares a unit by an affine relation to another unit: a value {@code x} in the unit
+     * equals {@code scale * x + offset} in the reference unit.
+     * Either unit may be new; a unit becomes part of the dimension whose base unit it is
+     * connected to. An edge between two units that are already connected must agree with
+     * the existing path between them.
+     *
+     * @param unit the symbol of the unit, e.g. "K"
+     * @param scale the multiplier of the relation, e.g. 1
+     * @param offset the constant of the relation, e.g. -273.15
+     * @param reference the symbol of the reference unit, e.g. "C"
+     * @throws IllegalStateException if the registry is frozen
+     * @throws IllegalArgumentException if the scale is zero or either coefficient is not finite
+     */
+    public void define(String unit, double scale, double offset, String reference) {
+        checkOpen();
+        if (scale == 0.0 || !Double.isFinite(scale) || !Double.isFinite(offset)) {
+            throw new IllegalArgumentException("Invalid definition of " + unit + ": " + scale + " " + reference + " + " + offset);
+        }
+        edges.add(new Edge(id(unit), id(reference), BigDecimal.valueOf(scale), BigDecimal.valueOf(offset)));
+    }
+
+    /**
+     * Resolves every unit to its dimension and compiles the conversion tables.
+     * Calling it again has no effect.
+     *
+     * @throws IllegalStateException if a unit is not connected to any base unit, if two base
+     *         units are connected, or if two paths between the same units disagree
+     */
+    public void freeze() {
+        if (frozen) {
+            return;
+        }
+        int unitCount = units.size();
+        List<List<Edge>> adjacency = new ArrayList<>(unitCount);
+        for (int i = 0; i < unitCount; i++) {
+            adjacency.add(new ArrayList<>());
+        }
+        for (Edge edge : edges) {
+            adjacency.get(edge.unit).add(edge);
+            adjacency.get(edge.reference).add(edge);
+        }
+
+        // Coefficients of value -> base unit, as scale and offset, for every unit
+        BigDecimal[] scales = new BigDecimal[unitCount];
+        BigDecimal[] offsets = new BigDecimal[unitCount];
+        // The same coefficients kept exact, as x_base = (a * x + b) / c
+        BigDecimal[] a = new BigDecimal[unitCount];
+        BigDecimal[] b = new BigDecimal[unitCount];
+        BigDecimal[] c = new BigDecimal[unitCount];
+        int[] dimensionOf = new int[unitCount];
+        Arrays.fill(dimensionOf, -1);
+        String[] names = bases.keySet().toArray(new String[0]);
+        for (int d = 0; d < names.length; d++) {
+            int base = bases.get(names[d]);
+            if (dimensionOf[base] >= 0) {
+                throw new IllegalStateException("Base units of " + names[dimensionOf[base]] + " and " + names[d] + " are connected");
+            }
+            dimensionOf[base] = d;
+            scales[base] = BigDecimal.ONE;
+            offsets[base] = BigDecimal.ZERO;
+            a[base] = BigDecimal.ONE;
+            b[base] = BigDecimal.ZERO;
+            c[base] = BigDecimal.ONE;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(base);
+            while (!queue.isEmpty()) {
+                int known = queue.poll();
+                for (Edge edge : adjacency.get(known)) {
+                    int other = edge.unit == known ? edge.reference : edge.unit;
+                    BigDecimal scale;
+                    BigDecimal offset;
+                    if (edge.reference == known) {
+                        // x_base = s_ref * (scale * x + offset) + o_ref
+                        scale = scales[known].multiply(edge.scale, MC);
+                        offset = scales[known].multiply(edge.offset, MC).add(offsets[known], MC);
+                    } else {
+                        // x = (x_ref - offset) / scale, so x_base = s_unit / scale * x_ref + o_unit - s_unit * offset / scale
+                        scale = scales[known].divide(edge.scale, MC);
+                        offset = offsets[known].subtract(scale.multiply(edge.offset, MC), MC);
+                    }
+                    if (dimensionOf[other] < 0) {
+                        dimensionOf[other] = d;
+                        scales[other] = scale;
+                        offsets[other] = offset;
+                        if (edge.reference == known) {
+                            // x_base = (a * (scale * x + offset) + b) / c
+                            a[other] = a[known].multiply(edge.scale);
+                            b[other] = a[known].multiply(edge.offset).add(b[known]);
+                            c[other] = c[known];
+                        } else {
+                            // x_base = (a * (x_ref - offset) / scale + b) / c = (a * x_ref - a * offset + b * scale) / (c * scale)
+                            a[other] = a[known];
+                            b[other] = b[known].multiply(edge.scale).subtract(a[known].multiply(edge.offset));
+                            c[other] = c[known].multiply(edge.scale);
+                        }
+                        queue.add(other);
+                    } else if (dimensionOf[other] != d) {
+                        throw new IllegalStateException("Base units of " + names[dimensionOf[other]] + " and " + names[d] + " are connected");
+                    } else if (!close(scale, scales[other]) || !close(offset, offsets[other])) {
+                        throw new IllegalStateException("Conflicting definitions of " + units.get(other));
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < unitCount; i++) {
+            if (dimensionOf[i] < 0) {
+                throw new IllegalStateException("Unit is not connected to a base unit: " + units.get(i));
+            }
+        }
+
+        int[] sizes = new int[names.length];
+        int[] local = new int[unitCount];
+        for (int i = 0; i < unitCount; i++) {
+            local[i] = sizes[dimensionOf[i]]++;
+        }
+        Table[] compiled = new Table[names.length];
+        for (int d = 0; d < names.length; d++) {
+            compiled[d] = new Table(sizes[d]);
+        }
+        for (int i = 0; i < unitCount; i++) {
+            Table table = compiled[dimensionOf[i]];
+            table.units[local[i]] = units.get(i);
+        }
+        for (int from = 0; from < unitCount; from++) {
+            for (int to = 0; to < unitCount; to++) {
+                if (dimensionOf[from] != dimensionOf[to]) {
+                    continue;
+                }
+                Table table = compiled[dimensionOf[from]];
+                int cell = local[from] * table.size + local[to];
+                if (from == to) {
+                    table.scales[cell] = 1.0;
+                    table.decimalScales[cell] = BigDecimal.ONE;
+                    table.decimalOffsets[cell] = BigDecimal.ZERO;
+                    table.decimalDivisors[cell] = BigDecimal.ONE;
+                    table.transforms[cell] = LinearTransform.IDENTITY;
+                    continue;
+                }
+                // x_to = (x_base - o_to) / s_to = s_from / s_to * x + (o_from - o_to) / s_to
+                table.scales[cell] = scales[from].divide(scales[to], MC).doubleValue();
+                table.offsets[cell] = offsets[from].subtract(offsets[to], MC).divide(scales[to], MC).doubleValue();
+                // Offset-free units sized by exact integers keep the two steps through the base unit
+                LinearTransform steps = b[from].signum() == 0 && b[to].signum() == 0
+                        ? LinearTransform.exactSteps(a[from], c[from], a[to], c[to]) : null;
+                table.transforms[cell] = steps != null ? steps : new LinearTransform(table.scales[cell], table.offsets[cell]);
+                // Exactly, x_to = (c_to * x_base - b_to) / a_to = (c_to * a_from * x + c_to * b_from - b_to * c_from) / (c_from * a_to)
+                BigDecimal scale = c[to].multiply(a[from]);
+                BigDecimal offset = c[to].multiply(b[from]).subtract(b[to].multiply(c[from]));
+                BigDecimal divisor = c[from].multiply(a[to]);
+                // Both quotients terminate when the divisor's factors other than 2 and 5 divide them;
+                // otherwise, e.g. the 1 / 1.8 of Fahrenheit to Celsius, the division is kept
+                BigInteger factor = FixedPointConverter.withoutTwosAndFives(divisor.unscaledValue().abs());
+                if (scale.unscaledValue().mod(factor).signum() == 0 && offset.unscaledValue().mod(factor).signum() == 0) {
+                    scale = scale.divide(divisor);
+                    offset = offset.divide(divisor);
+                    divisor = BigDecimal.ONE;
+                }
+                table.decimalScales[cell] = scale.stripTrailingZeros();
+                table.decimalOffsets[cell] = offset.stripTrailingZeros();
+                table.decimalDivisors[cell] = divisor.stripTrailingZeros();
+            }
+        }
+        tables = compiled;
+        dimensionIds = dimensionOf;
+        localIds = local;
+        dimensionNames = names;
+        frozen = true;
+    }
+
+    /**
+     * Returns whether the registry has been frozen.
+     *
+     * @return true if units can no longer be declared and conversions can be looked up
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns the unit ID for a symbol.
+     *
+     * @param unit the unit symbol
+     * @return the unit ID, or -1 if the unit is not declared
+     */
+    public int unitId(String unit) {
+        Integer id = ids.get(unit);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the ID of a unit pair, {@code (from unit ID << 16) | to unit ID}, a primitive key
+     * for per-pair tables and caches.
+     *
+     * @param fromUnit the unit to convert from
+     * @param toUnit the unit to convert to
+     * @return the pair ID, or -1 if either unit is not declared
+     */
+    public int pairId(String fromUnit, String toUnit) {
+        int from = unitId(fromUnit);
+        int to = unitId(toUnit);
+        return from < 0 || to < 0 ? -1 : from << 16 | to;
+    }
+
+    /**
+     * Returns the unit symbol for a unit ID.
+     *
+     * @param id the unit ID
+     * @return the unit symbol
+     */
+    public String unit(int id) {
+        return units.get(id);
+    }
+
+    /**
+     * Returns the number of declared units, over all dimensions.
+     *
+     * @return the number of units
+     */
+    public int unitCount() {
+        return units.size();
+    }
+
+    /**
+     * Returns the names of the declared dimensions, in order of declaration.
+     *
+     * @return an unmodifiable list of dimension names
+     */
+    public List<String> dimensions() {
+        return Collections.unmodifiableList(new ArrayList<>(bases.keySet()));
+    }
+
+    /**
+     * Returns the dimension a unit belongs to.
+     *
+     * @param unit the unit symbol
+     * @return the dimension name, or null if the unit is not declared
+     * @throws IllegalStateException if the registry is not frozen
+     */
+    public String dimensionOf(String unit) {
+        checkFrozen();
+        int id = unitId(unit);
+        return id < 0 ? null : dimensionNames[dimensionIds[id]];
+    }
+
+    /**
+     * Returns the units of a dimension, in order of declaration.
+     *
+     * @param dimension the dimension name
+     * @return a new array of unit symbols
+     * @throws IllegalStateException if the registry is not frozen
+     * @throws IllegalArgumentException if the dimension is not declared
+     */
+    public String[] units(String dimension) {
+        return table(dimension).units.clone();
+    }
+
+    /**
+     * Returns the base unit of a dimension.
+     *
+     * @param dimension the dimension name
+     * @return the base unit symbol
+     * @throws IllegalArgumentException if the dimension is not declared
+     */
+    public String baseUnit(String dimension) {
+        Integer base = bases.get(dimension);
+        if (base == null) {
+            throw new IllegalArgumentException("Unknown dimension: " + dimension);
+        }
+        return units.get(base);
+    }
+
+    /**
+     * Returns the compiled multiplier for a pair of unit IDs.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the multiplier of the conversion
+     * @throws IllegalStateException if the registry is not frozen
+     * @throws IllegalArgumentException if the units belong to different dimensions
+     */
+    public double scale(int fromId, int toId) {
+        return pairTable(fromId, toId).scales[cell(fromId, toId)];
+    }
+
+    /**
+     * Returns the compiled constant for a pair of unit IDs.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the constant added after scaling, 0 for units without an offset
+     * @throws IllegalStateException if the registry is not frozen
+     * @throws IllegalArgumentException if the units belong to different dimensions
+     */
+    public double offset(int fromId, int toId) {
+        return pairTable(fromId, toId).offsets[cell(fromId, toId)];
+    }
+
+    /**
+     * Converts a value between two units.
+     *
+     * @param value the value to convert
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the converted value
+     * @throws IllegalStateException if the registry is not frozen
+     * @throws IllegalArgumentException if the units belong to different dimensions
+     */
+    public double convert(double value, int fromId, int toId) {
+        return pairTable(fromId, toId).transforms[cell(fromId, toId)].apply(value);
+    }
+
+    /**
+     * Returns the compiled conversion between two units as a transform.
+     *
+     * @param fromUnit the unit of the values to convert
+     * @param toUnit the unit to convert the values to
+     * @return the transform for the unit pair, {@link LinearTransform#IDENTITY} if the units are the same
+     * @throws IllegalStateException if the registry is not frozen
+     * @throws IllegalArgumentException if either unit is not declared or the units belong to different dimensions
+     */
+    public LinearTransform transform(String fromUnit, String toUnit) {
+        int fromId = checkedId(fromUnit);
+        int toId = checkedId(toUnit);
+        return pairTable(fromId, toId).transforms[cell(fromId, toId)];
+    }
+
+    /**
+     * Returns the exact multiplier of a pair of unit IDs, for {@code (scale * x + offset) / divisor}.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the exact multiplier, without trailing zeros
+     */
+    BigDecimal decimalScale(int fromId, int toId) {
+        return pairTable(fromId, toId).decimalScales[cell(fromId, toId)];
+    }
+
+    /**
+     * Returns the exact constant of a pair of unit IDs, for {@code (scale * x + offset) / divisor}.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the exact constant, without trailing zeros
+     */
+    BigDecimal decimalOffset(int fromId, int toId) {
+        return pairTable(fromId, toId).decimalOffsets[cell(fromId, toId)];
+    }
+
+    /**
+     * Returns the exact divisor of a pair of unit IDs, for {@code (scale * x + offset) / divisor}.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return 1 if the conversion is a terminating {@code scale * x + offset}, otherwise the divisor
+     */
+    BigDecimal decimalDivisor(int fromId, int toId) {
+        return pairTable(fromId, toId).decimalDivisors[cell(fromId, toId)];
+    }
+
+    /**
+     * Returns the ID of a unit, declaring the unit if it is new.
+     *
+     * @param unit the unit symbol
+     * @return the unit ID
+     */
+    private int id(String unit) {
+        Integer id = ids.get(unit);
+        if (id == null) {
+            id = units.size();
+            ids.put(unit, id);
+            units.add(unit);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ID of a declared unit.
+     *
+     * @param unit the unit symbol
+     * @return the unit ID
+     * @throws IllegalArgumentException if the unit is not declared
+     */
+    private int checkedId(String unit) {
+        int id = unitId(unit);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown unit: " + unit);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the compiled table of a dimension.
+     *
+     * @param dimension the dimension name
+     * @return the table
+     */
+    private Table table(String dimension) {
+        checkFrozen();
+        for (int d = 0; d < dimensionNames.length; d++) {
+            if (dimensionNames[d].equals(dimension)) {
+                return tables[d];
+            }
+        }
+        throw new IllegalArgumentException("Unknown dimension: " + dimension);
+    }
+
+    /**
+     * Returns the compiled table shared by two units.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the table of their dimension
+     */
+    private Table pairTable(int fromId, int toId) {
+        checkFrozen();
+        int dimension = dimensionIds[fromId];
+        if (dimension != dimensionIds[toId]) {
+            throw new IllegalArgumentException("Cannot convert " + units.get(fromId) + " to " + units.get(toId));
+        }
+        return tables[dimension];
+    }
+
+    /**
+     * Returns the position of a unit pair in its dimension's tables.
+     *
+     * @param fromId the ID of the source unit
+     * @param toId the ID of the target unit
+     * @return the index into the scale and offset arrays
+     */
+    private int cell(int fromId, int toId) {
+        return localIds[fromId] * tables[dimensionIds[fromId]].size + localIds[toId];
+    }
+
+    /**
+     * Returns whether two composed coefficients agree within the tolerance.
+     *
+     * @param a the first coefficient
+     * @param b the second coefficient
+     * @return true if they are equal up to rounding
+     */
+    private static boolean close(BigDecimal a, BigDecimal b) {
+        BigDecimal limit = a.abs().max(b.abs()).multiply(TOLERANCE, MC);
+        return a.subtract(b, MC).abs().compareTo(limit) <= 0;
+    }
+
+    /**
+     * Checks that units can still be declared.
+     */
+    private void checkOpen() {
+        if (frozen) {
+            throw new IllegalStateException("Registry is frozen");
+        }
+    }
+
+    /**
+     * Checks that the conversion tables have been compiled.
+     */
+    private void checkFrozen() {
+        if (!frozen) {
+            throw new IllegalStateException("Registry is not frozen");
+        }
+    }
+
+    /**
+     * An edge of the unit graph: a value {@code x} in the unit equals
+     * {@code scale * x + offset} in the reference unit.
+     */
+    private static final class Edge {
+
+        private final int unit;
+        private final int reference;
+        private final BigDecimal scale;
+        private final BigDecimal offset;
+
+        Edge(int unit, int reference, BigDecimal scale, BigDecimal offset) {
+            this.unit = unit;
+            this.reference = reference;
+            this.scale = scale;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Compiled conversions of one dimension, as dense row-major {@code size * size} tables.
+     */
+    private static final class Table {
+
+        private final int size;
+        private final String[] units;
+        private final double[] scales;
+        private final double[] offsets;
+        private final LinearTransform[] transforms;
+        private final BigDecimal[] decimalScales;
+        private final BigDecimal[] decimalOffsets;
+        private final BigDecimal[] decimalDivisors;
+
+        Table(int size) {
+            this.size = size;
+            this.units = new String[size];
+            this.scales = new double[size * size];
+            this.offsets = new double[size * size];
+            this.transforms = new LinearTransform[size * size];
+            this.decimalScales = new BigDecimal[size * size];
+            this.decimalOffsets = new BigDecimal[size * size];
+            this.decimalDivisors = new BigDecimal[size * size];
+        }
+    }
+
+    /**
+     * Holder of the standard registry, built when it is first requested.
+     */
+    private static final class Standard {
+
+        private static final UnitRegistry REGISTRY = create();
+
+        private static UnitRegistry create() {
+            UnitRegistry registry = new UnitRegistry();
+            registry.base("Length", "m");
+            registry.define("cm", 0.01, "m");
+            registry.define("km", 1000, "m");
+            registry.define("mm", 0.1, "cm");
+
+            registry.base("Weight", "g");
+            registry.define("mg", 0.001, "g");
+            registry.define("dg", 0.1, "g");
+            registry.define("kg", 1000, "g");
+
+            registry.base("Temperature", "C");
+            registry.define("K", 1, -273.15, "C");
+            registry.define("C", 1.8, 32, "F");
+            registry.freeze();
+            return registry;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package Model;
 
 import Exceptions.NegativeValueException;
+import java.util.Objects;
 
 /**
  * The WeightModel class provides methods to convert weights between various units.
@@ -12,63 +13,135 @@ import Exceptions.NegativeValueException;
  */
 public class WeightModel {
     
+    /** Shared conversion engine holding the transform matrix compiled by the standard {@link UnitRegistry} for weight units. */
+    private static final ConversionEngine ENGINE = new ConversionEngine(UnitRegistry.standard(), "Weight");
+
+    /** Unit symbols supported by this model, indexed by unit ID. */
+    private static final String[] UNITS = UnitRegistry.standard().units("Weight");
+
     /**
      * Converts a given weight value from one unit to another.
      * 
      * @param value the weight value to be converted
-     * @param fromUnit the unit of the provided weight value (e.g., "g", "mg", "dg", "kg")
-     * @param toUnit the unit to convert the weight value to (e.g., "g", "mg", "dg", "kg")
+     * @param fromUnit the unit of the provided value (e.g., "g", "mg", "dg", "kg")
+     * @param toUnit the unit to convert the value to (e.g., "g", "mg", "dg", "kg")
      * @return the converted weight value in the target unit
-     * @throws NegativeValueException if the provided weight value is negative
+     * @throws NegativeValueException if the provided value is negative
      */
     public double convert(double value, String fromUnit, String toUnit) throws NegativeValueException {
+        return convert(value, ENGINE.unitId(fromUnit), ENGINE.unitId(toUnit));
+    }
+
+    /**
+     * Converts a given weight value between two units resolved with {@link #unitId(String)}.
+     * 
+     * @param value the weight value to be converted
+     * @param fromId the ID of the unit of the provided value
+     * @param toId the ID of the unit to convert the value to
+     * @return the converted weight value in the target unit
+     * @throws NegativeValueException if the provided value is negative
+     */
+    public double convert(double value, int fromId, int toId) throws NegativeValueException {
         if (value < 0) {
-            throw new NegativeValueException("Value cannot be negative: " + value);
+            throw NegativeValueException.forValue(value);
         }
-        
-        double valueInGrams = convertToGrams(value, fromUnit);
-        return convertFromGrams(valueInGrams, toUnit);
+        return ENGINE.convert(value, fromId, toId);
     }
 
     /**
-     * Converts a weight value to grams based on the provided unit.
+     * Converts a range of weight values from one unit to another.
+     * The whole range is checked for negative values before any result is written,
+     * so the target array is left untouched when the check fails.
      * 
-     * @param value the weight value to convert
-     * @param unit the unit of the provided weight value (e.g., "g", "mg", "dg", "kg")
-     * @return the weight value in grams
+     * @param src the weight values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param offset the index of the first value in both arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values (e.g., "g", "mg", "dg", "kg")
+     * @param toUnit the unit to convert the values to (e.g., "g", "mg", "dg", "kg")
+     * @throws NegativeValueException if any of the provided values is negative
+     * @throws IndexOutOfBoundsException if the range does not fit in either array
      */
-    private double convertToGrams(double value, String unit) {
-        switch (unit) {
-            case "dg": // decigrams
-                return value / 10; // Convert decigrams to grams
-            case "mg": // milligrams
-                return value / 1000; // Convert milligrams to grams
-            case "kg": // kilograms
-                return value * 1000; // Convert kilograms to grams
-            case "g": // grams
-            default:
-                return value; // Return value in grams if already in grams
+    public void convert(double[] src, double[] dst, int offset, int length, String fromUnit, String toUnit)
+            throws NegativeValueException {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        int negative = ConversionKernels.firstNegative(src, offset, length);
+        if (negative >= 0) {
+            throw NegativeValueException.forValue(src[negative]);
         }
+        ENGINE.transform(ENGINE.unitId(fromUnit), ENGINE.unitId(toUnit)).apply(src, dst, offset, length);
     }
 
     /**
-     * Converts a weight value from grams to the specified target unit.
+     * Converts a given weight value without throwing when it is rejected.
+     * The result is written into the given array, and NaN is written for a rejected value.
      * 
-     * @param value the weight value in grams to convert
-     * @param unit the target unit to convert to (e.g., "g", "mg", "dg", "kg")
-     * @return the weight value in the target unit
+     * @param value the weight value to be converted
+     * @param fromId the ID of the unit of the provided value
+     * @param toId the ID of the unit to convert the value to
+     * @param result the array receiving the converted value
+     * @param index the index in the result array to write to
+     * @return {@link ConversionStatus#OK} or {@link ConversionStatus#NEGATIVE_VALUE}
      */
-    private double convertFromGrams(double value, String unit) {
-        switch (unit) {
-            case "dg": // decigrams
-                return value * 10; // Convert grams to decigrams
-            case "mg": // milligrams
-                return value * 1000; // Convert grams to milligrams
-            case "kg": // kilograms
-                return value / 1000; // Convert grams to kilograms
-            case "g": // grams
-            default:
-                return value; // Return value in grams if already in grams
+    public byte tryConvert(double value, int fromId, int toId, double[] result, int index) {
+        if (value < 0) {
+            result[index] = Double.NaN;
+            return ConversionStatus.NEGATIVE_VALUE;
         }
+        result[index] = ENGINE.convert(value, fromId, toId);
+        return ConversionStatus.OK;
+    }
+
+    /**
+     * Converts a range of weight values without throwing for negative values.
+     * Each rejected value produces NaN in the target array and
+     * {@link ConversionStatus#NEGATIVE_VALUE} in the status array; the other values are converted.
+     * 
+     * @param src the weight values to be converted
+     * @param dst the array receiving the converted values, may be the same as src
+     * @param status the array receiving one status code per value
+     * @param offset the index of the first value in all arrays
+     * @param length the number of values to convert
+     * @param fromUnit the unit of the provided values
+     * @param toUnit the unit to convert the values to
+     * @return the number of rejected values
+     * @throws IndexOutOfBoundsException if the range does not fit in any of the arrays
+     */
+    public int convert(double[] src, double[] dst, byte[] status, int offset, int length, String fromUnit, String toUnit) {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        Objects.checkFromIndexSize(offset, length, status.length);
+        return ENGINE.transform(ENGINE.unitId(fromUnit), ENGINE.unitId(toUnit))
+                .applyChecked(src, dst, status, offset, length);
+    }
+
+    /**
+     * Resolves a unit symbol to its unit ID.
+     * Unknown symbols resolve to grams, as in the original conversion rules.
+     * 
+     * @param unit the unit symbol (e.g., "g", "mg", "dg", "kg")
+     * @return the unit ID
+     */
+    public int unitId(String unit) {
+        return ENGINE.unitId(unit);
+    }
+
+    /**
+     * Returns the conversion engine shared by all instances of this model.
+     * 
+     * @return the weight conversion engine
+     */
+    public static ConversionEngine engine() {
+        return ENGINE;
+    }
+
+    /**
+     * Returns the unit symbols supported by this model, in unit ID order.
+     * 
+     * @return a copy of the weight unit symbols
+     */
+    public static String[] units() {
+        return UNITS.clone();
     }
 }
@@ -1,7 +1,12 @@
 module polsl {
-    requires javafx.controls;
-    requires javafx.fxml;
+    // Static so that the headless polsl.Cli runs without JavaFX on the module path;
+    // the GUI adds the modules explicitly (see the javafx-maven-plugin configuration).
+    requires static javafx.controls;
+    requires static javafx.fxml;
     requires java.base;
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
     
     opens Controller to javafx.fxml;
     exports Controller;
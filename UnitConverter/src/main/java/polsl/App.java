@@ -1,46 +1,102 @@
 package polsl;
 
+import Controller.ConverterController;
+import Controller.MainMenuController;
+import Controller.ViewCache;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
+import javafx.application.Platform;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The App class serves as the entry point for the JavaFX application.
  * It initializes the primary stage and loads the main menu interface.
+ * The conversion view is loaded right after the main menu is shown,
+ * so that navigating to it only swaps the scene root, and the time taken
+ * by each startup phase is logged through {@link StartupTimer}. Once the models
+ * are warm, {@link ConverterMetrics} is published over JMX.
  * 
  * @author Bartek Bielak
  * @version 1.0
  */
 public class App extends Application {
 
+    /** Resource path of the main menu view, shown first. */
+    private static final String MAIN_MENU = MainMenuController.VIEW;
+
+    /** Resource path of the conversion view shared by every dimension, loaded after the first frame. */
+    private static final String CONVERSION_VIEW = ConverterController.VIEW;
+
     /**
      * Starts the JavaFX application by setting up the primary stage.
+     * Once the main menu has been laid out for its first frame, the conversion view is
+     * loaded on the application thread while the models are warmed up on a background thread.
      *
      * @param stage the primary stage for this application, onto which 
      *              the application scene can be set
      */
     @Override
     public void start(Stage stage) {
+        StartupTimer.mark("toolkit ready");
+        AppStartEvent event = new AppStartEvent();
+        event.begin();
         try {
-            Parent root = FXMLLoader.load(getClass().getResource("/View/MainMenu.fxml"));
+            Parent root = ViewCache.get(MAIN_MENU);
             Scene scene = new Scene(root);
+            scene.addPostLayoutPulseListener(new Runnable() {
+                private boolean done;
+
+                @Override
+                public void run() {
+                    if (!done) {
+                        done = true;
+                        Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                        StartupTimer.mark("first frame");
+                        warmUp();
+                    }
+                }
+            });
             stage.setScene(scene); 
             stage.show(); 
         } catch (Exception e) {
             e.printStackTrace(); 
+        } finally {
+            event.commit();
         }
     }
 
+    /**
+     * Loads the conversion view and warms up the models, logging the startup
+     * breakdown once both are done.
+     */
+    private void warmUp() {
+        CompletableFuture<Void> models = new CompletableFuture<>();
+        Thread warmup = new Thread(() -> {
+            Warmup.run();
+            ConverterMetrics.register();
+            models.complete(null);
+        }, "model-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+
+        CompletableFuture<Void> views = new CompletableFuture<>();
+        ViewCache.preload(CONVERSION_VIEW);
+        Platform.runLater(() -> views.complete(null));
+
+        CompletableFuture.allOf(models, views).thenRun(() -> StartupTimer.finish("all views warm"));
+    }
+
     /**
      * The main entry point for the JavaFX application.
      * 
      * @param args command-line arguments for the application
      */
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         launch(args); 
     }
 }
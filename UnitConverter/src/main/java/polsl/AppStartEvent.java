@@ -0,0 +1,20 @@
+package polsl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted around {@link App#start}, from the toolkit being ready to the main menu being shown.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@Name("polsl.AppStart")
+@Label("Application Start")
+@Category({"Unit Converter", "View"})
+@Description("Loading the main menu and showing the primary stage")
+public final class AppStartEvent extends Event {
+}
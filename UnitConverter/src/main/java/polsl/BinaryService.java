@@ -0,0 +1,579 @@
+package polsl;
+
+import Model.Dimension;
+import Model.LinearTransform;
+import Model.UnitRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The BinaryService class converts streams of doubles over a compact binary protocol on a
+ * non-blocking loopback socket, for clients that need more throughput than {@link HttpService}.
+ * Like {@link Cli}, it never touches the JavaFX toolkit:
+ * <pre>
+ *   java -p UnitConverter-1.0.jar -m polsl/polsl.BinaryService --port 9090 --threads 4
+ * </pre>
+ * A request frame is an 8-byte header followed by the payload, all little-endian:
+ * <pre>
+ *   int32 length    payload size in bytes, a multiple of 8
+ *   int32 pair      (from unit ID &lt;&lt; 16) | to unit ID, see {@link #pairId(String, String)}
+ *   double[length / 8] values
+ * </pre>
+ * Each request is answered by a frame of the same size, in order: the header carries the same
+ * length and a status instead of the pair, and the payload carries the converted values.
+ * Values rejected by the model, such as negative lengths, are answered as NaN and counted by the
+ * recorder installed with {@link Dimension#setRecorder}. For an unknown
+ * pair every value is answered as NaN with {@link #STATUS_UNKNOWN_PAIR}. A length that is negative
+ * or not a multiple of 8 is answered with an empty {@link #STATUS_BAD_FRAME} frame, after which
+ * the connection is closed.
+ * <p>
+ * Since a response frame has exactly the layout of its request, every connection converts its
+ * stream in place, in a direct buffer taken from a per-thread pool: bytes are read into the
+ * buffer, each complete header and value is rewritten where it lies, and the rewritten bytes are
+ * written back from the same buffer. Frames of any size stream through a fixed-size buffer, and
+ * no objects are created per frame or per value. Connections are spread over a fixed number of
+ * event loops, each a single thread with its own selector.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class BinaryService implements Closeable {
+
+    /** Status of a converted frame. */
+    public static final int STATUS_OK = 0;
+
+    /** Status of a frame whose unit pair is unknown or spans two dimensions; the values are NaN. */
+    public static final int STATUS_UNKNOWN_PAIR = 1;
+
+    /** Status of a frame with an invalid length; the connection is closed after it. */
+    public static final int STATUS_BAD_FRAME = 2;
+
+    /** Size of a frame header in bytes. */
+    public static final int HEADER_BYTES = 8;
+
+    /** Port listened on when none is given. */
+    private static final int DEFAULT_PORT = 9090;
+
+    /** Size of each connection buffer in bytes, a multiple of the size of a double. */
+    private static final int BUFFER_BYTES = 256 << 10;
+
+    /** Transform answering every value of an unknown pair with NaN. */
+    private static final LinearTransform UNKNOWN = new LinearTransform(Double.NaN, 0.0);
+
+    /** Exit status of a normal start. */
+    private static final int EXIT_OK = 0;
+
+    /** Exit status of invalid arguments or a failed start. */
+    private static final int EXIT_ERROR = 2;
+
+    /** Number of units of the standard registry, the stride of the pair tables. */
+    private static final int UNIT_COUNT = UnitRegistry.standard().unitCount();
+
+    /** Transform of every unit pair, indexed by {@code from * UNIT_COUNT + to}; null across dimensions. */
+    private final LinearTransform[] transforms = new LinearTransform[UNIT_COUNT * UNIT_COUNT];
+
+    /** Whether each unit pair rejects negative values, indexed like {@link #transforms}. */
+    private final boolean[] rejectNegative = new boolean[UNIT_COUNT * UNIT_COUNT];
+
+    /** The listening channel. */
+    private final ServerSocketChannel server;
+
+    /** The event loops; the first one also accepts connections. */
+    private final EventLoop[] loops;
+
+    /** Index of the event loop receiving the next accepted connection. */
+    private int nextLoop;
+
+    /** Whether the service is stopping. */
+    private volatile boolean closed;
+
+    /** Whether the event loops have been started; until then, closing the service closes the channels itself. */
+    private boolean started;
+
+    /**
+     * Constructs a BinaryService listening on a loopback port. The service does not accept
+     * connections until it is started.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param threads the number of event loops
+     * @throws IOException if the port cannot be bound
+     */
+    public BinaryService(int port, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required: " + threads);
+        }
+        UnitRegistry registry = UnitRegistry.standard();
+        for (int from = 0; from < UNIT_COUNT; from++) {
+            Dimension dimension = Dimension.ofUnit(registry.unit(from));
+            for (int to = 0; to < UNIT_COUNT; to++) {
+                if (dimension != null && dimension.hasUnit(registry.unit(to))) {
+                    transforms[from * UNIT_COUNT + to] = dimension.transform(registry.unit(from), registry.unit(to));
+                    rejectNegative[from * UNIT_COUNT + to] = !dimension.acceptsNegative();
+                }
+            }
+        }
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.configureBlocking(false);
+        loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop(i);
+        }
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * The entry point of the binary conversion service.
+     *
+     * @param args command-line arguments: [--port PORT] [--threads N]
+     */
+    public static void main(String[] args) {
+        int status = run(args);
+        if (status != EXIT_OK) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Parses the arguments and starts the service, which keeps running after this method returns.
+     *
+     * @param args command-line arguments
+     * @return the exit status
+     */
+    static int run(String[] args) {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            try {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(++i < args.length ? args[i] : "");
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(++i < args.length ? args[i] : "");
+                        break;
+                    case "-h":
+                    case "--help":
+                        printUsage(System.out);
+                        return EXIT_OK;
+                    default:
+                        return usageError("Unknown argument: " + args[i]);
+                }
+            } catch (NumberFormatException ex) {
+                return usageError(args[i - 1] + " must be a number");
+            }
+        }
+        BinaryService service;
+        try {
+            service = new BinaryService(port, threads);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Cannot listen on port " + port + ": " + ex.getMessage());
+            return EXIT_ERROR;
+        }
+        service.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close, "binary-shutdown"));
+        System.err.println("Listening on " + service.getAddress().getHostString() + ":" + service.getAddress().getPort()
+                + " with " + threads + " event loop" + (threads == 1 ? "" : "s"));
+        return EXIT_OK;
+    }
+
+    /**
+     * Returns the pair ID of two units of the standard {@link UnitRegistry}, as sent in request headers.
+     *
+     * @param fromUnit the unit to convert from
+     * @param toUnit the unit to convert to
+     * @return the pair ID
+     * @throws IllegalArgumentException if either unit is unknown
+     */
+    public static int pairId(String fromUnit, String toUnit) {
+        int pair = UnitRegistry.standard().pairId(fromUnit, toUnit);
+        if (pair < 0) {
+            throw new IllegalArgumentException("Unknown unit pair: " + fromUnit + " to " + toUnit);
+        }
+        return pair;
+    }
+
+    /**
+     * Starts the event loops. Does nothing if the service has already been started or closed.
+     */
+    public synchronized void start() {
+        if (started || closed) {
+            return;
+        }
+        started = true;
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open connection. A service that was never
+     * started releases its port and selectors here, as its event loops would have on exit.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (!started) {
+                closeQuietly(server);
+                for (EventLoop loop : loops) {
+                    closeQuietly(loop.selector);
+                }
+                return;
+            }
+        }
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.thread.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes a channel or selector of a service that is stopping, ignoring failures.
+     *
+     * @param closeable the channel or selector
+     */
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            // Already stopping
+        }
+    }
+
+    /**
+     * Returns the address the service listens on.
+     *
+     * @return the loopback address and bound port
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) server.socket().getLocalSocketAddress();
+    }
+
+    /**
+     * Reports an invalid command line.
+     *
+     * @param message the problem with the arguments
+     * @return the exit status for invalid arguments
+     */
+    private static int usageError(String message) {
+        System.err.println(message);
+        printUsage(System.err);
+        return EXIT_ERROR;
+    }
+
+    /**
+     * Prints the command line syntax.
+     *
+     * @param stream the stream to print to
+     */
+    private static void printUsage(PrintStream stream) {
+        stream.println("Usage: polsl.BinaryService [--port PORT] [--threads N]");
+        stream.println("  Converts length-prefixed frames of little-endian doubles on 127.0.0.1,");
+        stream.println("  port " + DEFAULT_PORT + " by default, with one event loop per processor by default.");
+    }
+
+    /**
+     * A thread serving its share of the connections through its own selector, with a pool of
+     * direct buffers reused by the connections it serves.
+     */
+    private final class EventLoop implements Runnable {
+
+        /** Selector of the loop's channels. */
+        final Selector selector;
+
+        /** Thread running the loop. */
+        final Thread thread;
+
+        /** Connections accepted by another loop, waiting to be registered with this one. */
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+
+        /** Buffers released by closed connections. */
+        private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+
+        /**
+         * Creates an event loop.
+         *
+         * @param index the index of the loop, used in the thread name
+         * @throws IOException if the selector cannot be opened
+         */
+        EventLoop(int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "binary-loop-" + index);
+        }
+
+        /**
+         * Serves connections until the service is closed, then closes them.
+         */
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    selector.select(this::handle);
+                    SocketChannel channel;
+                    while ((channel = accepted.poll()) != null) {
+                        register(channel);
+                    }
+                }
+            } catch (IOException ex) {
+                System.err.println(thread.getName() + " stopped: " + ex.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        ((Connection) key.attachment()).close();
+                    }
+                }
+                try {
+                    if (this == loops[0]) {
+                        server.close();
+                    }
+                    selector.close();
+                } catch (IOException ex) {
+                    // Already stopping
+                }
+            }
+        }
+
+        /**
+         * Handles a ready channel.
+         *
+         * @param key the key of the channel
+         */
+        private void handle(SelectionKey key) {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    connection.read();
+                } else if (key.isWritable()) {
+                    connection.flush();
+                }
+            } catch (IOException ex) {
+                connection.close();
+            }
+        }
+
+        /**
+         * Accepts the pending connections, spreading them over the loops.
+         */
+        private void accept() {
+            try {
+                SocketChannel channel;
+                while ((channel = server.accept()) != null) {
+                    EventLoop loop = loops[nextLoop];
+                    nextLoop = (nextLoop + 1) % loops.length;
+                    if (loop == this) {
+                        register(channel);
+                    } else {
+                        loop.accepted.add(channel);
+                        loop.selector.wakeup();
+                    }
+                }
+            } catch (IOException ex) {
+                System.err.println("Cannot accept a connection: " + ex.getMessage());
+            }
+        }
+
+        /**
+         * Registers a connection with this loop.
+         *
+         * @param channel the accepted channel
+         */
+        private void register(SocketChannel channel) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ByteBuffer buffer = pool.poll();
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(this, channel, key, buffer));
+            } catch (IOException ex) {
+                try {
+                    channel.close();
+                } catch (IOException closeEx) {
+                    ex.addSuppressed(closeEx);
+                }
+            }
+        }
+    }
+
+    /**
+     * One client connection. Its buffer holds, in order, bytes already written back, bytes
+     * converted but not yet written, and bytes read but not yet converted; all indices are
+     * multiples of 8 from the start of the stream except the end of the read bytes.
+     */
+    private final class Connection {
+
+        /** Loop serving the connection. */
+        private final EventLoop loop;
+
+        /** The client channel. */
+        private final SocketChannel channel;
+
+        /** Key of the channel in the loop's selector. */
+        private final SelectionKey key;
+
+        /** Pooled buffer, in fill mode: its position is the end of the read bytes. */
+        private ByteBuffer buffer;
+
+        /** End of the converted bytes. */
+        private int converted;
+
+        /** End of the bytes written back. */
+        private int written;
+
+        /** Number of values of the current frame still to be converted, or 0 between frames. */
+        private long remaining;
+
+        /** Transform of the current frame. */
+        private LinearTransform transform;
+
+        /** Whether the current frame rejects negative values. */
+        private boolean rejecting;
+
+        /** Whether the connection closes once the converted bytes are written. */
+        private boolean closing;
+
+        /**
+         * Creates a connection.
+         *
+         * @param loop the loop serving the connection
+         * @param channel the client channel
+         * @param key the key of the channel
+         * @param buffer the pooled buffer of the connection
+         */
+        Connection(EventLoop loop, SocketChannel channel, SelectionKey key, ByteBuffer buffer) {
+            this.loop = loop;
+            this.channel = channel;
+            this.key = key;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Reads the available bytes, converts them and writes them back. When the client has
+         * finished sending, the connection closes once the converted bytes are written.
+         *
+         * @throws IOException if the channel fails
+         */
+        void read() throws IOException {
+            if (channel.read(buffer) < 0) {
+                closing = true;
+            } else {
+                convert();
+            }
+            flush();
+        }
+
+        /**
+         * Rewrites every complete header and value that has been read.
+         */
+        private void convert() {
+            int end = buffer.position();
+            while (!closing && end - converted >= Double.BYTES) {
+                if (remaining == 0) {
+                    header();
+                } else {
+                    int count = (int) Math.min(remaining, (end - converted) / Double.BYTES);
+                    int rejected = transform.apply(buffer, converted, count, rejecting);
+                    if (rejected > 0) {
+                        Dimension.getRecorder().recordNegativeRejections(rejected);
+                    }
+                    converted += count * Double.BYTES;
+                    remaining -= count;
+                }
+            }
+        }
+
+        /**
+         * Rewrites a request header into the response header and prepares the conversion of its payload.
+         */
+        private void header() {
+            int length = buffer.getInt(converted);
+            int pair = buffer.getInt(converted + 4);
+            if (length < 0 || length % Double.BYTES != 0) {
+                buffer.putInt(converted, 0);
+                buffer.putInt(converted + 4, STATUS_BAD_FRAME);
+                closing = true;
+            } else {
+                int from = pair >>> 16;
+                int to = pair & 0xFFFF;
+                LinearTransform pairTransform = from < UNIT_COUNT && to < UNIT_COUNT ? transforms[from * UNIT_COUNT + to] : null;
+                transform = pairTransform != null ? pairTransform : UNKNOWN;
+                rejecting = pairTransform != null && rejectNegative[from * UNIT_COUNT + to];
+                buffer.putInt(converted + 4, pairTransform != null ? STATUS_OK : STATUS_UNKNOWN_PAIR);
+                remaining = length / Double.BYTES;
+            }
+            converted += HEADER_BYTES;
+        }
+
+        /**
+         * Writes the converted bytes back. Once all of them are written, the unconverted rest is
+         * moved to the start of the buffer and reading resumes; until then the connection only
+         * waits for the channel to become writable.
+         *
+         * @throws IOException if the channel fails
+         */
+        void flush() throws IOException {
+            int end = buffer.position();
+            buffer.limit(converted).position(written);
+            channel.write(buffer);
+            written = buffer.position();
+            buffer.limit(buffer.capacity()).position(end);
+            if (written < converted) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (closing) {
+                close();
+                return;
+            }
+            buffer.limit(end).position(converted);
+            buffer.compact();
+            converted = 0;
+            written = 0;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        /**
+         * Closes the channel and returns the buffer to the loop's pool.
+         */
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                // Nothing left to release
+            }
+            if (buffer != null) {
+                buffer.clear();
+                loop.pool.push(buffer);
+                buffer = null;
+            }
+        }
+    }
+}
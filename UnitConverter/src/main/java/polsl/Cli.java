@@ -0,0 +1,458 @@
+package polsl;
+
+import Exceptions.NegativeValueException;
+import Model.ConversionStatus;
+import Model.Dimension;
+import Model.FixedDecimal;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The Cli class is a headless entry point that converts values read from standard input
+ * or a file and writes the results to standard output, one per line. It never touches
+ * the JavaFX toolkit, so it can run without the JavaFX modules:
+ * <pre>
+ *   java -p UnitConverter-1.0.jar -m polsl/polsl.Cli --from cm --to m values.txt
+ *   java -p UnitConverter-1.0.jar -m polsl/polsl.Cli rows.csv
+ * </pre>
+ * With {@code --from} and {@code --to} every input line holds a single value. Without them
+ * every line is a {@code value,from,to} row. Values are collected into fixed-size chunks and
+ * converted with the bulk model API; consecutive rows with the same unit pair share a chunk.
+ * Lines that cannot be converted produce {@code NaN} on standard output, so output lines stay
+ * aligned with input lines, and an error message on standard error.
+ * <p>
+ * With {@code --binary} the input is a file of little-endian doubles, converted through
+ * {@link MappedColumnConverter} either in place or into a second file:
+ * <pre>
+ *   java -p UnitConverter-1.0.jar -m polsl/polsl.Cli --from mm --to m --binary in.bin [out.bin]
+ * </pre>
+ * With {@code --exact} values are read and converted as decimals rather than doubles, so that
+ * e.g. 0.3 cm is written as exactly 0.003 m; see {@link Dimension#convertExact}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class Cli {
+
+    /** Number of values converted together. */
+    private static final int CHUNK_SIZE = 8192;
+
+    /** Size of the input and output character buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Exit status when every line was converted. */
+    private static final int EXIT_OK = 0;
+
+    /** Exit status when at least one line could not be converted. */
+    private static final int EXIT_REJECTED = 1;
+
+    /** Exit status for invalid arguments or I/O failures. */
+    private static final int EXIT_ERROR = 2;
+
+    /** Destination of the converted values. */
+    private final Writer out;
+
+    /** Destination of error messages. */
+    private final PrintStream err;
+
+    /** True when the unit pair is given on the command line rather than per row. */
+    private final boolean fixedPair;
+
+    /** Values of the current chunk. */
+    private final double[] chunk = new double[CHUNK_SIZE];
+
+    /** Converted values of the current chunk. */
+    private final double[] results = new double[CHUNK_SIZE];
+
+    /** Conversion status of each value of the current chunk. */
+    private final byte[] statuses = new byte[CHUNK_SIZE];
+
+    /** Input line number of each value in the current chunk, used in error messages. */
+    private final long[] lines = new long[CHUNK_SIZE];
+
+    /** Number of values in the current chunk. */
+    private int count;
+
+    /** Dimension of the current chunk, or null before the first valid row. */
+    private Dimension dimension;
+
+    /** Unit the current chunk is converted from. */
+    private String fromUnit;
+
+    /** Unit the current chunk is converted to. */
+    private String toUnit;
+
+    /** Number of lines that could not be converted. */
+    private int rejected;
+
+    /** Writes the converted values as text. */
+    private final NumberFormatter formatter;
+
+    /** Output line of one converted value, reused for every value. */
+    private char[] line = new char[NumberFormatter.MAX_LENGTH + 1];
+
+    /** True when values are converted as exact decimals rather than in chunks of doubles. */
+    private final boolean exact;
+
+    /** Value being converted in exact mode, reused for every value. */
+    private final FixedDecimal decimal = new FixedDecimal();
+
+    /** Text of the value converted in exact mode, reused for every value. */
+    private final StringBuilder decimalText = new StringBuilder();
+
+    /**
+     * Constructs a Cli writing to the given streams.
+     *
+     * @param out destination of the converted values
+     * @param err destination of error messages
+     * @param dimension dimension of the fixed unit pair, or null to read value,from,to rows
+     * @param fromUnit unit to convert from when the pair is fixed
+     * @param toUnit unit to convert to when the pair is fixed
+     * @param formatter writes the converted values
+     * @param exact whether values are converted as exact decimals
+     */
+    Cli(Writer out, PrintStream err, Dimension dimension, String fromUnit, String toUnit, NumberFormatter formatter,
+            boolean exact) {
+        this.out = out;
+        this.err = err;
+        this.formatter = formatter;
+        this.exact = exact;
+        this.fixedPair = dimension != null;
+        this.dimension = dimension;
+        this.fromUnit = fromUnit;
+        this.toUnit = toUnit;
+    }
+
+    /**
+     * The entry point of the command line converter.
+     *
+     * @param args command-line arguments: [--from UNIT --to UNIT] [--digits N | --exact] [FILE | -],
+     *             or --from UNIT --to UNIT --binary FILE [OUTPUT]
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Parses the arguments and converts the whole input.
+     *
+     * @param args command-line arguments
+     * @return the exit status
+     */
+    static int run(String[] args) {
+        String from = null;
+        String to = null;
+        String path = null;
+        String outputPath = null;
+        boolean binary = false;
+        boolean exact = false;
+        String digits = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--from":
+                    from = ++i < args.length ? args[i] : null;
+                    break;
+                case "--to":
+                    to = ++i < args.length ? args[i] : null;
+                    break;
+                case "--binary":
+                    binary = true;
+                    break;
+                case "--digits":
+                    digits = ++i < args.length ? args[i] : "";
+                    break;
+                case "--exact":
+                    exact = true;
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage(System.out);
+                    return EXIT_OK;
+                default:
+                    if (path == null) {
+                        path = args[i];
+                    } else if (outputPath == null) {
+                        outputPath = args[i];
+                    } else {
+                        return usageError("Too many files given");
+                    }
+                    break;
+            }
+        }
+        if (outputPath != null && !binary) {
+            return usageError("Only one input file can be given");
+        }
+        if ((from == null) != (to == null)) {
+            return usageError("--from and --to must be given together");
+        }
+        if (exact && (digits != null || binary)) {
+            return usageError("--exact cannot be combined with --digits or --binary");
+        }
+        NumberFormatter formatter = new NumberFormatter();
+        if (digits != null) {
+            try {
+                formatter = new NumberFormatter(Integer.parseInt(digits));
+            } catch (IllegalArgumentException ex) {
+                return usageError("--digits must be a number between 1 and 17");
+            }
+        }
+        Dimension dimension = null;
+        if (from != null) {
+            dimension = Dimension.ofUnit(from);
+            if (dimension == null || !dimension.hasUnit(to)) {
+                return usageError("Cannot convert from " + from + " to " + to);
+            }
+        }
+        if (binary) {
+            if (dimension == null || path == null) {
+                return usageError("--binary requires --from, --to and an input file");
+            }
+            return convertBinary(dimension, from, to, Paths.get(path), outputPath == null ? null : Paths.get(outputPath));
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), BUFFER_SIZE);
+        Cli cli = new Cli(out, System.err, dimension, from, to, formatter, exact);
+        try (BufferedReader in = path == null || "-".equals(path)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_SIZE)
+                : Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            cli.convertAll(in);
+        } catch (IOException ex) {
+            System.err.println("I/O error: " + ex.getMessage());
+            return EXIT_ERROR;
+        }
+        return cli.rejected > 0 ? EXIT_REJECTED : EXIT_OK;
+    }
+
+    /**
+     * Converts a binary column file and reports the throughput on standard error.
+     *
+     * @param dimension the dimension of the unit pair
+     * @param from the unit of the stored values
+     * @param to the unit to convert the values to
+     * @param input the file of little-endian doubles
+     * @param output the file receiving the results, or null to convert in place
+     * @return the exit status
+     */
+    private static int convertBinary(Dimension dimension, String from, String to, Path input, Path output) {
+        long start = System.nanoTime();
+        long values;
+        try {
+            values = new MappedColumnConverter(dimension, from, to).convert(input, output);
+        } catch (NegativeValueException ex) {
+            System.err.println("Invalid Input. " + ex.getMessage());
+            return EXIT_REJECTED;
+        } catch (IOException ex) {
+            System.err.println("I/O error: " + ex.getMessage());
+            return EXIT_ERROR;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double gigabytes = values * (double) Double.BYTES / 1e9;
+        System.err.printf("Converted %d values (%.3f GB) in %.3f s: %.3f GB/s%n",
+                values, gigabytes, seconds, seconds > 0 ? gigabytes / seconds : 0.0);
+        return EXIT_OK;
+    }
+
+    /**
+     * Converts every line of the input and flushes the output.
+     *
+     * @param in the input to read
+     * @throws IOException if reading or writing fails
+     */
+    void convertAll(BufferedReader in) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            accept(line.trim(), lineNumber);
+        }
+        flush();
+        out.flush();
+    }
+
+    /**
+     * Adds a single input line to the current chunk, starting a new chunk when the
+     * unit pair changes.
+     *
+     * @param text the trimmed input line
+     * @param lineNumber the input line number
+     * @throws IOException if writing a completed chunk fails
+     */
+    private void accept(String text, long lineNumber) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (fixedPair) {
+            add(text, 0, text.length(), lineNumber);
+            return;
+        }
+        int first = text.indexOf(',');
+        int second = first < 0 ? -1 : text.indexOf(',', first + 1);
+        if (second < 0) {
+            reject(lineNumber, "Expected value,from,to");
+            add(Double.NaN, lineNumber);
+            return;
+        }
+        String from = text.substring(first + 1, second).trim();
+        String to = text.substring(second + 1).trim();
+        Dimension rowDimension = Dimension.ofUnit(from);
+        if (rowDimension == null || !rowDimension.hasUnit(to)) {
+            reject(lineNumber, "Cannot convert from " + from + " to " + to);
+            add(Double.NaN, lineNumber);
+            return;
+        }
+        if (rowDimension != dimension || !from.equals(fromUnit) || !to.equals(toUnit)) {
+            flush();
+            dimension = rowDimension;
+            fromUnit = from;
+            toUnit = to;
+        }
+        add(text, 0, first, lineNumber);
+    }
+
+    /**
+     * Parses a value in place, without copying it out of the line, and adds it to the current chunk.
+     *
+     * @param text the input line
+     * @param start the index of the first character of the value
+     * @param end the index after the last character of the value
+     * @param lineNumber the input line number
+     * @throws IOException if writing a completed chunk fails
+     */
+    private void add(CharSequence text, int start, int end, long lineNumber) throws IOException {
+        if (exact) {
+            convertExact(text, start, end, lineNumber);
+        } else if (NumberParser.parse(text, start, end, chunk, count) == NumberParser.OK) {
+            add(chunk[count], lineNumber);
+        } else {
+            reject(lineNumber, "Invalid Input. Please enter a number");
+            add(Double.NaN, lineNumber);
+        }
+    }
+
+    /**
+     * Parses a value as a decimal, converts it exactly and writes the result right away.
+     * Lines already rejected in the current chunk are written first, so output stays in input order.
+     *
+     * @param text the input line
+     * @param start the index of the first character of the value
+     * @param end the index after the last character of the value
+     * @param lineNumber the input line number
+     * @throws IOException if writing fails
+     */
+    private void convertExact(CharSequence text, int start, int end, long lineNumber) throws IOException {
+        flush();
+        if (!decimal.parse(text, start, end)) {
+            reject(lineNumber, "Invalid Input. Please enter a number");
+            add(Double.NaN, lineNumber);
+            return;
+        }
+        try {
+            dimension.convertExact(decimal, fromUnit, toUnit, decimal);
+        } catch (NegativeValueException ex) {
+            reject(lineNumber, "Invalid Input. " + ex.getMessage());
+            add(Double.NaN, lineNumber);
+            return;
+        }
+        decimalText.setLength(0);
+        decimal.appendTo(decimalText).append('\n');
+        if (decimalText.length() > line.length) {
+            line = new char[decimalText.length()];
+        }
+        decimalText.getChars(0, decimalText.length(), line, 0);
+        out.write(line, 0, decimalText.length());
+    }
+
+    /**
+     * Adds a parsed value to the current chunk, converting the chunk once it is full.
+     *
+     * @param value the value to add
+     * @param lineNumber the input line number
+     * @throws IOException if writing the completed chunk fails
+     */
+    private void add(double value, long lineNumber) throws IOException {
+        chunk[count] = value;
+        lines[count] = lineNumber;
+        if (++count == CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Converts the current chunk and writes its results.
+     * Values rejected by the model are reported individually and written as NaN.
+     *
+     * @throws IOException if writing fails
+     */
+    private void flush() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (dimension == null) {
+            System.arraycopy(chunk, 0, results, 0, count);
+        } else if (dimension.convert(chunk, results, statuses, 0, count, fromUnit, toUnit) > 0) {
+            for (int i = 0; i < count; i++) {
+                if (statuses[i] == ConversionStatus.NEGATIVE_VALUE) {
+                    reject(lines[i], "Invalid Input. Value cannot be negative: " + chunk[i]);
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int end = formatter.format(results[i], line, 0);
+            line[end++] = '\n';
+            out.write(line, 0, end);
+        }
+        count = 0;
+    }
+
+    /**
+     * Reports a line that could not be converted.
+     *
+     * @param lineNumber the input line number
+     * @param message the reason the line was rejected
+     */
+    private void reject(long lineNumber, String message) {
+        rejected++;
+        err.println("line " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Reports an invalid command line.
+     *
+     * @param message the problem with the arguments
+     * @return the exit status for invalid arguments
+     */
+    private static int usageError(String message) {
+        System.err.println(message);
+        printUsage(System.err);
+        return EXIT_ERROR;
+    }
+
+    /**
+     * Prints the command line syntax.
+     *
+     * @param stream the stream to print to
+     */
+    private static void printUsage(PrintStream stream) {
+        stream.println("Usage: polsl.Cli [--from UNIT --to UNIT] [--digits N | --exact] [FILE | -]");
+        stream.println("       polsl.Cli --from UNIT --to UNIT --binary FILE [OUTPUT]");
+        stream.println("  With --from and --to, each input line is a value.");
+        stream.println("  Otherwise, each input line is value,from,to.");
+        stream.println("  Values are written with the fewest digits that read back exactly,");
+        stream.println("  or rounded to N significant digits with --digits.");
+        stream.println("  With --exact, values are converted as decimals without rounding,");
+        stream.println("  e.g. 0.3 cm is exactly 0.003 m.");
+        stream.println("  With --binary, FILE holds little-endian doubles, converted in place");
+        stream.println("  or into OUTPUT.");
+    }
+}
@@ -0,0 +1,339 @@
+package polsl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConversionCache class memoizes single-value conversions for services whose traffic repeats
+ * a small set of requests, such as standard package weights or common temperatures. Entries are
+ * keyed by primitives, a unit-pair ID from {@link Model.UnitRegistry#pairId(String, String)} and
+ * the bits of the input value, and hold both the result and its formatted text.
+ * <p>
+ * The cache is set-associative: a key can only live in one set of eight slots, and each set is
+ * an independent stripe updated with compare-and-set, so lookups and insertions never lock.
+ * Admission follows TinyLFU: the access frequency of every key is estimated by a count-min
+ * sketch of 4-bit counters that are halved periodically, and on a full set a new key only
+ * replaces the least frequently used resident if it has been requested more often. One-off
+ * values therefore do not evict the popular ones.
+ * <p>
+ * The cache is only consulted by callers that choose to, so bulk conversions simply bypass it.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ConversionCache {
+
+    /** Number of slots per set. */
+    private static final int WAYS = 8;
+
+    /** Largest value of a sketch counter. */
+    private static final long MAX_FREQUENCY = 15;
+
+    /** Seeds of the four sketch rows. */
+    private static final long[] SEEDS = {
+        0x97CB3127E6EC4D67L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x85EBCA77C2B2AE63L
+    };
+
+    /** The slots, set after set. */
+    private final AtomicReferenceArray<Entry> slots;
+
+    /** Mask selecting a set from a hash. */
+    private final int setMask;
+
+    /** Frequency sketch, sixteen 4-bit counters per word. */
+    private final AtomicLongArray sketch;
+
+    /** Mask selecting a sketch word from a hash. */
+    private final int sketchMask;
+
+    /** Number of recorded accesses after which the sketch counters are halved. */
+    private final int sampleSize;
+
+    /** Accesses recorded since the sketch was last halved. */
+    private final AtomicInteger samples = new AtomicInteger();
+
+    /** Number of lookups that found an entry. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Number of lookups that found no entry. */
+    private final LongAdder misses = new LongAdder();
+
+    /** Number of entries replaced by more frequent keys. */
+    private final LongAdder evictions = new LongAdder();
+
+    /** Number of new keys not admitted because they were less frequent than every resident. */
+    private final LongAdder rejections = new LongAdder();
+
+    /** Number of occupied slots. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Constructs a ConversionCache.
+     *
+     * @param capacity the maximum number of entries, rounded up to a power of two of at least eight
+     * @throws IllegalArgumentException if the capacity is not positive or larger than 2^30
+     */
+    public ConversionCache(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int entries = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        slots = new AtomicReferenceArray<>(entries);
+        setMask = entries / WAYS - 1;
+        sketch = new AtomicLongArray(Math.max(8, entries / 4));
+        sketchMask = sketch.length() - 1;
+        sampleSize = 10 * entries;
+    }
+
+    /**
+     * Looks up a conversion and counts the access towards the key's frequency.
+     *
+     * @param pairId the ID of the unit pair
+     * @param value the input value
+     * @return the cached entry, or null if the conversion is not cached
+     */
+    public Entry get(int pairId, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        long hash = hash(pairId, bits);
+        record(hash);
+        int set = ((int) hash & setMask) * WAYS;
+        for (int i = 0; i < WAYS; i++) {
+            Entry entry = slots.get(set + i);
+            if (entry != null && entry.bits == bits && entry.pairId == pairId) {
+                hits.increment();
+                return entry;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Offers a conversion to the cache, typically after {@link #get(int, double)} missed.
+     * The conversion is stored in a free slot of its set, or replaces the set's least frequently
+     * used entry if it has been requested more often than that entry; otherwise it is not stored.
+     *
+     * @param pairId the ID of the unit pair
+     * @param value the input value
+     * @param result the converted value
+     * @param text the formatted result
+     * @return the entry holding the conversion, whether it was stored or not
+     */
+    public Entry put(int pairId, double value, double result, String text) {
+        long bits = Double.doubleToRawLongBits(value);
+        long hash = hash(pairId, bits);
+        Entry candidate = new Entry(pairId, bits, result, text);
+        int set = ((int) hash & setMask) * WAYS;
+        int victim = -1;
+        Entry victimEntry = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int i = 0; i < WAYS; i++) {
+            Entry entry = slots.get(set + i);
+            if (entry == null) {
+                if (slots.compareAndSet(set + i, null, candidate)) {
+                    size.incrementAndGet();
+                    return candidate;
+                }
+                entry = slots.get(set + i);
+            }
+            if (entry.bits == bits && entry.pairId == pairId) {
+                return entry;
+            }
+            int frequency = frequency(hash(entry.pairId, entry.bits));
+            if (frequency < victimFrequency) {
+                victim = set + i;
+                victimEntry = entry;
+                victimFrequency = frequency;
+            }
+        }
+        if (frequency(hash) > victimFrequency && slots.compareAndSet(victim, victimEntry, candidate)) {
+            evictions.increment();
+        } else {
+            rejections.increment();
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no entry.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of lookups that found an entry.
+     *
+     * @return the hit rate from 0 to 1, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long found = hits.sum();
+        long total = found + misses.sum();
+        return total == 0 ? 0 : (double) found / total;
+    }
+
+    /**
+     * Returns the number of entries replaced by more frequently requested conversions.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of conversions not admitted because they were requested less often
+     * than every entry of their set.
+     *
+     * @return the number of rejected admissions
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Counts an access in the frequency sketch, halving every counter once enough accesses
+     * have been counted so that old popularity fades.
+     *
+     * @param hash the hash of the key
+     */
+    private void record(long hash) {
+        for (int row = 0; row < SEEDS.length; row++) {
+            long rowHash = mix(hash + SEEDS[row]);
+            int word = (int) rowHash & sketchMask;
+            int shift = (int) (rowHash >>> 60) << 2;
+            long current;
+            do {
+                current = sketch.get(word);
+            } while ((current >>> shift & MAX_FREQUENCY) < MAX_FREQUENCY
+                    && !sketch.compareAndSet(word, current, current + (1L << shift)));
+        }
+        if (samples.incrementAndGet() == sampleSize) {
+            samples.set(0);
+            for (int i = 0; i < sketch.length(); i++) {
+                sketch.set(i, sketch.get(i) >>> 1 & 0x7777_7777_7777_7777L);
+            }
+        }
+    }
+
+    /**
+     * Estimates the access frequency of a key as its smallest counter.
+     *
+     * @param hash the hash of the key
+     * @return the estimated frequency, from 0 to 15
+     */
+    private int frequency(long hash) {
+        long frequency = MAX_FREQUENCY;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long rowHash = mix(hash + SEEDS[row]);
+            int shift = (int) (rowHash >>> 60) << 2;
+            frequency = Math.min(frequency, sketch.get((int) rowHash & sketchMask) >>> shift & MAX_FREQUENCY);
+        }
+        return (int) frequency;
+    }
+
+    /**
+     * Hashes a key.
+     *
+     * @param pairId the ID of the unit pair
+     * @param bits the bits of the input value
+     * @return the hash
+     */
+    private static long hash(int pairId, long bits) {
+        return mix(bits ^ (long) pairId * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Scrambles the bits of a number, so that keys differing in a few bits land far apart.
+     *
+     * @param x the number
+     * @return the scrambled number
+     */
+    private static long mix(long x) {
+        x = (x ^ x >>> 33) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ x >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return x ^ x >>> 33;
+    }
+
+    /**
+     * A cached conversion.
+     */
+    public static final class Entry {
+
+        /** The ID of the unit pair. */
+        private final int pairId;
+
+        /** The bits of the input value. */
+        private final long bits;
+
+        /** The converted value. */
+        private final double result;
+
+        /** The formatted result. */
+        private final String text;
+
+        /**
+         * Creates an entry.
+         *
+         * @param pairId the ID of the unit pair
+         * @param bits the bits of the input value
+         * @param result the converted value
+         * @param text the formatted result
+         */
+        Entry(int pairId, long bits, double result, String text) {
+            this.pairId = pairId;
+            this.bits = bits;
+            this.result = result;
+            this.text = text;
+        }
+
+        /**
+         * Returns the converted value.
+         *
+         * @return the result
+         */
+        public double getResult() {
+            return result;
+        }
+
+        /**
+         * Returns the formatted result.
+         *
+         * @return the text of the result
+         */
+        public String getText() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package polsl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The ConversionHistory class stores past conversions in primitive columns instead of
+ * one object per conversion. Values and results are kept in {@code double[]} arrays and
+ * units as {@code byte} IDs into a fixed unit table, so each entry costs about 18 bytes.
+ * {@link ConversionRecord} objects are created only when a row is read.
+ * <p>
+ * At most {@code capacity} rows are kept in memory, in a ring buffer. When the ring is full,
+ * the oldest row is appended to a temporary spill file. Spilled rows keep their indices and
+ * are read back from the file a page at a time when they are requested.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ConversionHistory implements AutoCloseable {
+
+    /** Default number of rows kept in memory, configurable with -Dunitconverter.history.capacity. */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("unitconverter.history.capacity", 10_000);
+
+    /** Number of rows allocated when the first row is added. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Size of a spilled row: value, result, from unit ID and to unit ID. */
+    private static final int RECORD_BYTES = Double.BYTES * 2 + 2;
+
+    /** Number of spilled rows read from the file at once. */
+    private static final int PAGE_ROWS = 256;
+
+    /** Number of spilled rows buffered before they are written to the file. */
+    private static final int SPILL_BUFFER_ROWS = 512;
+
+    /** Unit symbols, indexed by the unit IDs stored in the unit columns. */
+    private final String[] units;
+
+    /** Maximum number of rows kept in memory. */
+    private final int capacity;
+
+    /** Original values, one per in-memory row. */
+    private double[] values = new double[0];
+
+    /** Conversion results, one per in-memory row. */
+    private double[] results = new double[0];
+
+    /** IDs of the units converted from, one per in-memory row. */
+    private byte[] fromUnits = new byte[0];
+
+    /** IDs of the units converted to, one per in-memory row. */
+    private byte[] toUnits = new byte[0];
+
+    /** Slot of the oldest in-memory row. */
+    private int head;
+
+    /** Number of rows in memory. */
+    private int inMemory;
+
+    /** Number of rows moved to the spill file, including rows still in the spill buffer. */
+    private long spilled;
+
+    /** Spill file, created when the first row is spilled. */
+    private Path spillPath;
+
+    /** Channel appending to the spill file; reads are positional, so writes always go to the end. */
+    private FileChannel spillChannel;
+
+    /** Spilled rows not yet written to the file. */
+    private final ByteBuffer spillBuffer = ByteBuffer.allocate(SPILL_BUFFER_ROWS * RECORD_BYTES);
+
+    /** Buffer used to read a page of spilled rows. */
+    private ByteBuffer pageBuffer;
+
+    /** Index of the first row of the cached page, or -1 if no page is cached. */
+    private long pageStart = -1;
+
+    /** Number of rows in the cached page. */
+    private int pageRows;
+
+    /** Original values of the cached page. */
+    private final double[] pageValues = new double[PAGE_ROWS];
+
+    /** Results of the cached page. */
+    private final double[] pageResults = new double[PAGE_ROWS];
+
+    /** From unit IDs of the cached page. */
+    private final byte[] pageFromUnits = new byte[PAGE_ROWS];
+
+    /** To unit IDs of the cached page. */
+    private final byte[] pageToUnits = new byte[PAGE_ROWS];
+
+    /**
+     * Constructs an empty ConversionHistory with the default in-memory capacity.
+     *
+     * @param units the unit symbols that can appear in the history, at most 256
+     * @throws IllegalArgumentException if more than 256 units are given
+     */
+    public ConversionHistory(String... units) {
+        this(DEFAULT_CAPACITY, units);
+    }
+
+    /**
+     * Constructs an empty ConversionHistory.
+     *
+     * @param capacity the maximum number of rows kept in memory
+     * @param units the unit symbols that can appear in the history, at most 256
+     * @throws IllegalArgumentException if the capacity is not positive or more than 256 units are given
+     */
+    public ConversionHistory(int capacity, String... units) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (units.length > 256) {
+            throw new IllegalArgumentException("Too many units: " + units.length);
+        }
+        this.capacity = capacity;
+        this.units = units.clone();
+    }
+
+    /**
+     * Appends a conversion to the history, spilling the oldest in-memory row if the ring is full.
+     *
+     * @param value the original value
+     * @param fromUnit the unit of the original value
+     * @param toUnit the unit of the converted value
+     * @param result the result of the conversion
+     * @throws IllegalArgumentException if either unit is not part of this history's unit table
+     * @throws UncheckedIOException if the oldest row cannot be written to the spill file
+     */
+    public void add(double value, String fromUnit, String toUnit, double result) {
+        byte from = unitId(fromUnit);
+        byte to = unitId(toUnit);
+        int slot;
+        if (inMemory == capacity) {
+            slot = head;
+            spill(slot);
+            head = head + 1 == capacity ? 0 : head + 1;
+        } else {
+            if (inMemory == values.length) {
+                grow();
+            }
+            slot = inMemory++;
+        }
+        values[slot] = value;
+        results[slot] = result;
+        fromUnits[slot] = from;
+        toUnits[slot] = to;
+    }
+
+    /**
+     * Returns the number of conversions stored, in memory and spilled.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, spilled + inMemory);
+    }
+
+    /**
+     * Returns the original value of a row.
+     *
+     * @param index the row index
+     * @return the original value
+     */
+    public double getValue(int index) {
+        int slot = slot(index);
+        return slot >= 0 ? values[slot] : pageValues[pageIndex(index)];
+    }
+
+    /**
+     * Returns the result of a row.
+     *
+     * @param index the row index
+     * @return the converted value
+     */
+    public double getResult(int index) {
+        int slot = slot(index);
+        return slot >= 0 ? results[slot] : pageResults[pageIndex(index)];
+    }
+
+    /**
+     * Returns the unit converted from in a row.
+     *
+     * @param index the row index
+     * @return the unit of the original value
+     */
+    public String getFromUnit(int index) {
+        int slot = slot(index);
+        return units[(slot >= 0 ? fromUnits[slot] : pageFromUnits[pageIndex(index)]) & 0xFF];
+    }
+
+    /**
+     * Returns the unit converted to in a row.
+     *
+     * @param index the row index
+     * @return the unit of the converted value
+     */
+    public String getToUnit(int index) {
+        int slot = slot(index);
+        return units[(slot >= 0 ? toUnits[slot] : pageToUnits[pageIndex(index)]) & 0xFF];
+    }
+
+    /**
+     * Returns a row as a {@link ConversionRecord}, created on demand.
+     *
+     * @param index the row index
+     * @return a record holding the row's values
+     */
+    public ConversionRecord get(int index) {
+        int slot = slot(index);
+        if (slot >= 0) {
+            return new ConversionRecord(values[slot], units[fromUnits[slot] & 0xFF], units[toUnits[slot] & 0xFF], results[slot]);
+        }
+        int row = pageIndex(index);
+        return new ConversionRecord(pageValues[row], units[pageFromUnits[row] & 0xFF], units[pageToUnits[row] & 0xFF], pageResults[row]);
+    }
+
+    /**
+     * Returns the maximum number of rows kept in memory.
+     *
+     * @return the ring buffer capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Closes and deletes the spill file, if one was created.
+     *
+     * @throws IOException if the file cannot be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (spillChannel != null) {
+            spillChannel.close();
+            spillChannel = null;
+            Files.deleteIfExists(spillPath);
+        }
+    }
+
+    /**
+     * Maps a row index to its ring buffer slot.
+     *
+     * @param index the row index
+     * @return the slot of an in-memory row, or -1 if the row has been spilled
+     */
+    private int slot(int index) {
+        Objects.checkIndex(index, size());
+        if (index < spilled) {
+            return -1;
+        }
+        int slot = head + (int) (index - spilled);
+        return slot >= values.length ? slot - values.length : slot;
+    }
+
+    /**
+     * Loads the page containing a spilled row if it is not cached.
+     *
+     * @param index the index of a spilled row
+     * @return the position of the row in the cached page
+     * @throws UncheckedIOException if the page cannot be read
+     */
+    private int pageIndex(int index) {
+        if (index < pageStart || index >= pageStart + pageRows) {
+            loadPage((long) index / PAGE_ROWS * PAGE_ROWS);
+        }
+        return (int) (index - pageStart);
+    }
+
+    /**
+     * Reads a page of spilled rows from the spill file.
+     *
+     * @param start the index of the first row of the page
+     */
+    private void loadPage(long start) {
+        try {
+            flushSpill();
+            int rows = (int) Math.min(PAGE_ROWS, spilled - start);
+            if (pageBuffer == null) {
+                pageBuffer = ByteBuffer.allocate(PAGE_ROWS * RECORD_BYTES);
+            }
+            pageBuffer.clear().limit(rows * RECORD_BYTES);
+            long position = start * RECORD_BYTES;
+            while (pageBuffer.hasRemaining()) {
+                int read = spillChannel.read(pageBuffer, position + pageBuffer.position());
+                if (read < 0) {
+                    throw new IOException("Spill file is truncated: " + spillPath);
+                }
+            }
+            pageBuffer.flip();
+            for (int i = 0; i < rows; i++) {
+                pageValues[i] = pageBuffer.getDouble();
+                pageResults[i] = pageBuffer.getDouble();
+                pageFromUnits[i] = pageBuffer.get();
+                pageToUnits[i] = pageBuffer.get();
+            }
+            pageStart = start;
+            pageRows = rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Moves an in-memory row to the spill buffer, writing the buffer out when it is full.
+     *
+     * @param slot the slot of the row to spill
+     */
+    private void spill(int slot) {
+        try {
+            if (!spillBuffer.hasRemaining()) {
+                flushSpill();
+            }
+            spillBuffer.putDouble(values[slot]).putDouble(results[slot]).put(fromUnits[slot]).put(toUnits[slot]);
+            spilled++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Appends the buffered spilled rows to the spill file, creating the file if needed.
+     *
+     * @throws IOException if the file cannot be created or written
+     */
+    private void flushSpill() throws IOException {
+        if (spillBuffer.position() == 0) {
+            return;
+        }
+        if (spillChannel == null) {
+            spillPath = Files.createTempFile("conversion-history", ".bin");
+            spillPath.toFile().deleteOnExit();
+            spillChannel = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        spillBuffer.flip();
+        while (spillBuffer.hasRemaining()) {
+            spillChannel.write(spillBuffer);
+        }
+        spillBuffer.clear();
+    }
+
+    /**
+     * Resolves a unit symbol to the ID stored in the unit columns.
+     *
+     * @param unit the unit symbol
+     * @return the unit ID
+     */
+    private byte unitId(String unit) {
+        for (int i = 0; i < units.length; i++) {
+            if (units[i].equals(unit)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown unit: " + unit);
+    }
+
+    /**
+     * Grows every column by half of its current size, up to the capacity.
+     * Growth only happens before the ring wraps around, while the oldest row is in slot 0.
+     */
+    private void grow() {
+        int size = (int) Math.min(capacity, Math.max(INITIAL_CAPACITY, values.length + (long) (values.length >> 1)));
+        values = Arrays.copyOf(values, size);
+        results = Arrays.copyOf(results, size);
+        fromUnits = Arrays.copyOf(fromUnits, size);
+        toUnits = Arrays.copyOf(toUnits, size);
+    }
+}
@@ -0,0 +1,243 @@
+package polsl;
+
+import Model.ConversionRecorder;
+import Model.Dimension;
+import Model.UnitRegistry;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The ConverterMetrics class counts what the application converts and how long it takes, and
+ * publishes the numbers over JMX once {@link #register()} is called. It records conversion calls
+ * per model and per unit pair, rejected negative values, unparsable inputs, and the latency of
+ * conversions and scene switches in {@link LatencyHistogram}s. Conversions reach it as the
+ * {@link ConversionRecorder} of the dimensions, installed by {@link #register()}.
+ * <p>
+ * Recording is meant to stay on in production: every counter is a {@link LongAdder}, so it
+ * never locks, and unit pairs are counted in an array indexed by registry unit IDs.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class ConverterMetrics implements ConverterMetricsMXBean, ConversionRecorder {
+
+    /** Name the metrics are registered under. */
+    public static final String OBJECT_NAME = "polsl:type=ConverterMetrics";
+
+    /** The metrics shared by the whole application. */
+    private static final ConverterMetrics INSTANCE = new ConverterMetrics();
+
+    /** Percentiles reported for latencies. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** Names of the reported percentiles. */
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /** Registry resolving the unit pairs. */
+    private final UnitRegistry registry = UnitRegistry.standard();
+
+    /** Number of unit IDs of the registry. */
+    private final int unitCount = registry.unitCount();
+
+    /** Dimensions, in ordinal order. */
+    private final Dimension[] dimensions = Dimension.values();
+
+    /** Conversion calls per dimension, indexed by ordinal. */
+    private final LongAdder[] modelCalls = adders(dimensions.length);
+
+    /** Conversion calls per unit pair, indexed by {@code fromId * unitCount + toId}. */
+    private final LongAdder[] pairCalls = adders(unitCount * unitCount);
+
+    /** Values rejected for being negative. */
+    private final LongAdder negativeRejections = new LongAdder();
+
+    /** Inputs the views could not parse. */
+    private final LongAdder parseFailures = new LongAdder();
+
+    /** Latency of conversion calls. */
+    private final LatencyHistogram conversionLatency = new LatencyHistogram();
+
+    /** Latency of scene switches. */
+    private final LatencyHistogram sceneSwitchLatency = new LatencyHistogram();
+
+    /**
+     * Prevents instantiation outside {@link #get()}.
+     */
+    private ConverterMetrics() {
+    }
+
+    /**
+     * Returns the metrics shared by the whole application.
+     *
+     * @return the metrics
+     */
+    public static ConverterMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under {@value #OBJECT_NAME}
+     * and installs them as the recorder of the dimensions' conversions.
+     * Calling it again has no effect.
+     *
+     * @throws IllegalStateException if the metrics cannot be registered
+     */
+    public static synchronized void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+            Dimension.setRecorder(INSTANCE);
+        } catch (JMException ex) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, ex);
+        }
+    }
+
+    /**
+     * Records a conversion call.
+     *
+     * @param dimension the dimension the values were converted in
+     * @param fromUnit the unit converted from
+     * @param toUnit the unit converted to
+     * @param nanos the duration of the call
+     */
+    @Override
+    public void recordConversion(Dimension dimension, String fromUnit, String toUnit, long nanos) {
+        modelCalls[dimension.ordinal()].increment();
+        int from = registry.unitId(fromUnit);
+        int to = registry.unitId(toUnit);
+        if (from >= 0 && to >= 0) {
+            pairCalls[from * unitCount + to].increment();
+        }
+        conversionLatency.record(nanos);
+    }
+
+    /**
+     * Records values rejected for being negative.
+     *
+     * @param count the number of rejected values
+     */
+    @Override
+    public void recordNegativeRejections(int count) {
+        negativeRejections.add(count);
+    }
+
+    /**
+     * Records an input that could not be parsed as a number.
+     */
+    public void recordParseFailure() {
+        parseFailures.increment();
+    }
+
+    /**
+     * Records a scene switch.
+     *
+     * @param nanos the duration of the switch
+     */
+    public void recordSceneSwitch(long nanos) {
+        sceneSwitchLatency.record(nanos);
+    }
+
+    @Override
+    public Map<String, Long> getModelCalls() {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        for (Dimension dimension : dimensions) {
+            calls.put(dimension.getTitle(), modelCalls[dimension.ordinal()].sum());
+        }
+        return calls;
+    }
+
+    @Override
+    public Map<String, Long> getPairCalls() {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        for (int i = 0; i < pairCalls.length; i++) {
+            long count = pairCalls[i].sum();
+            if (count > 0) {
+                calls.put(registry.unit(i / unitCount) + "->" + registry.unit(i % unitCount), count);
+            }
+        }
+        return calls;
+    }
+
+    @Override
+    public long getNegativeRejections() {
+        return negativeRejections.sum();
+    }
+
+    @Override
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    @Override
+    public long getConversionCount() {
+        return conversionLatency.getCount();
+    }
+
+    @Override
+    public Map<String, Long> getConversionLatency() {
+        return latency(conversionLatency);
+    }
+
+    @Override
+    public long getSceneSwitchCount() {
+        return sceneSwitchLatency.getCount();
+    }
+
+    @Override
+    public Map<String, Long> getSceneSwitchLatency() {
+        return latency(sceneSwitchLatency);
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : modelCalls) {
+            adder.reset();
+        }
+        for (LongAdder adder : pairCalls) {
+            adder.reset();
+        }
+        negativeRejections.reset();
+        parseFailures.reset();
+        conversionLatency.reset();
+        sceneSwitchLatency.reset();
+    }
+
+    /**
+     * Summarizes a histogram.
+     *
+     * @param histogram the histogram
+     * @return the percentiles, mean and maximum in nanoseconds
+     */
+    private static Map<String, Long> latency(LatencyHistogram histogram) {
+        Map<String, Long> latency = new LinkedHashMap<>();
+        long[] values = histogram.percentiles(PERCENTILES);
+        for (int i = 0; i < values.length; i++) {
+            latency.put(PERCENTILE_NAMES[i], values[i]);
+        }
+        latency.put("mean", Math.round(histogram.getMean()));
+        latency.put("max", histogram.getMax());
+        return latency;
+    }
+
+    /**
+     * Creates an array of counters.
+     *
+     * @param length the number of counters
+     * @return the counters, all zero
+     */
+    private static LongAdder[] adders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,77 @@
+package polsl;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link ConverterMetrics}, as shown by JConsole or any other JMX
+ * client under {@value ConverterMetrics#OBJECT_NAME}. Latencies are reported in nanoseconds
+ * as maps from {@code p50}, {@code p90}, {@code p99}, {@code p999}, {@code mean} and {@code max}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public interface ConverterMetricsMXBean {
+
+    /**
+     * Returns the number of conversion calls per model.
+     *
+     * @return the call counts keyed by dimension name, e.g. "Length"
+     */
+    Map<String, Long> getModelCalls();
+
+    /**
+     * Returns the number of conversion calls per unit pair, for the pairs converted at least once.
+     *
+     * @return the call counts keyed by pair, e.g. "cm->m"
+     */
+    Map<String, Long> getPairCalls();
+
+    /**
+     * Returns the number of values rejected for being negative, by the dimensions,
+     * {@link Model.ParallelConverter} and {@link BinaryService}. A rejected range
+     * conversion counts as one rejection.
+     *
+     * @return the number of rejected values
+     */
+    long getNegativeRejections();
+
+    /**
+     * Returns the number of inputs the views could not parse as a number.
+     *
+     * @return the number of parse failures
+     */
+    long getParseFailures();
+
+    /**
+     * Returns the number of timed conversion calls.
+     *
+     * @return the number of conversion calls
+     */
+    long getConversionCount();
+
+    /**
+     * Returns the latency percentiles of conversion calls.
+     *
+     * @return the latencies in nanoseconds
+     */
+    Map<String, Long> getConversionLatency();
+
+    /**
+     * Returns the number of scene switches.
+     *
+     * @return the number of scene switches
+     */
+    long getSceneSwitchCount();
+
+    /**
+     * Returns the latency percentiles of scene switches.
+     *
+     * @return the latencies in nanoseconds
+     */
+    Map<String, Long> getSceneSwitchLatency();
+
+    /**
+     * Discards every count and latency recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,603 @@
+package polsl;
+
+import Model.UnitRegistry;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The HistoryLog class persists past conversions in an append-only binary file, so that the
+ * history survives restarts of the application. The file starts with a header page holding the
+ * unit table, followed by fixed-width records:
+ * <pre>
+ *   0  double  value          (little-endian)
+ *   8  double  result
+ *  16  short   from unit      (index into the header's unit table)
+ *  18  short   to unit
+ *  20  int     check word     (hash of the fields above; records failing it are skipped)
+ * </pre>
+ * Appending never touches the file on the caller's thread: records are buffered, and a background
+ * writer thread writes and forces everything buffered since its last batch at once, so a burst of
+ * conversions costs one write and one {@code force} (group commit). Reloading memory-maps only
+ * the last records of the file and decodes them in place, so its cost depends on the number of
+ * records reloaded, not on the size of the log. A record cut short by a crash is truncated away
+ * when the log is opened.
+ * <p>
+ * A log file is locked while open, so a second instance of the application falls back to not
+ * persisting its history.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class HistoryLog implements AutoCloseable {
+
+    /** Size of a record, in bytes. */
+    public static final int RECORD_BYTES = 24;
+
+    /** Size of the header page that precedes the records, in bytes. */
+    public static final int HEADER_BYTES = 4096;
+
+    /** Default number of records reloaded, configurable with -Dunitconverter.history.reload. */
+    public static final int DEFAULT_RELOAD = Integer.getInteger("unitconverter.history.reload", ConversionHistory.DEFAULT_CAPACITY);
+
+    /** Magic number at the start of the file, "UCHISTLG". */
+    private static final long MAGIC = 0x55434849_53544C47L;
+
+    /** Version of the file format. */
+    private static final int VERSION = 1;
+
+    /** Offset of the unit count in the header. */
+    private static final int UNIT_COUNT_OFFSET = 16;
+
+    /** Offset of the first unit symbol in the header. */
+    private static final int UNITS_OFFSET = 20;
+
+    /** Size of the append buffer allocated first. */
+    private static final int INITIAL_BUFFER = 64 * RECORD_BYTES;
+
+    /** The file of the log. */
+    private final Path path;
+
+    /** Channel writing and reading the file. */
+    private final FileChannel channel;
+
+    /** Lock keeping other logs from writing the same file. */
+    private final FileLock fileLock;
+
+    /** Unit symbols, indexed by the unit IDs stored in records. */
+    private final String[] fileUnits;
+
+    /** Unit IDs stored in records, indexed by registry unit ID. */
+    private final short[] fileIds;
+
+    /** Registry resolving the units of appended conversions. */
+    private final UnitRegistry registry = UnitRegistry.standard();
+
+    /** Guards the append buffer and the counters. */
+    private final Object lock = new Object();
+
+    /** Records appended and not yet taken by the writer; guarded by {@link #lock}. */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+    /** Buffer the writer is writing out; only touched by the writer thread. */
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+    /** Number of records the file held when the log was opened. */
+    private final long previous;
+
+    /** Number of records appended; guarded by {@link #lock}. */
+    private long appended;
+
+    /** Number of records written and forced to the file; guarded by {@link #lock}. */
+    private long durable;
+
+    /** Whether the log has been closed or has failed; guarded by {@link #lock}. */
+    private boolean closed;
+
+    /** Thread writing the buffered records. */
+    private final Thread writer;
+
+    /**
+     * Opens a history log, creating the file if it does not exist, and starts its writer thread.
+     *
+     * @param path the file of the log
+     * @throws IOException if the file cannot be opened, is not a history log, or is used by another process
+     */
+    public HistoryLog(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            fileLock = tryLock(channel);
+            if (fileLock == null) {
+                throw new IOException("History log is already in use: " + path);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() == 0) {
+                header.putLong(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0);
+            } else {
+                readFully(header, 0);
+                if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION || header.getInt(12) != RECORD_BYTES) {
+                    throw new IOException("Not a history log: " + path);
+                }
+            }
+            String[] stored = readUnits(header);
+            fileIds = new short[registry.unitCount()];
+            fileUnits = addUnits(header, stored);
+            if (fileUnits.length > stored.length || channel.size() == 0) {
+                header.clear();
+                writeFully(header, 0);
+                channel.force(false);
+            }
+            long records = Math.max(0, channel.size() - HEADER_BYTES) / RECORD_BYTES;
+            // Drop a record cut short by a crash, so that appended records stay aligned
+            channel.truncate(HEADER_BYTES + records * RECORD_BYTES);
+            channel.position(HEADER_BYTES + records * RECORD_BYTES);
+            previous = records;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        writer = new Thread(this::writeLoop, "history-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the log shared by the application, opening it on first use. The file is
+     * {@code ~/.unitconverter/history.bin} unless -Dunitconverter.history.file names another one;
+     * an empty name disables the log. The shared log is closed when the JVM exits.
+     *
+     * @return the shared log, or null if it is disabled or cannot be opened
+     */
+    public static HistoryLog shared() {
+        return Shared.LOG;
+    }
+
+    /**
+     * Appends a conversion to the log. The record is written by the writer thread shortly after;
+     * conversions appended after the log is closed are dropped.
+     *
+     * @param value the original value
+     * @param fromUnit the unit of the original value
+     * @param toUnit the unit of the converted value
+     * @param result the result of the conversion
+     * @throws IllegalArgumentException if either unit is not declared in the standard registry
+     */
+    public void append(double value, String fromUnit, String toUnit, double result) {
+        short from = fileId(fromUnit);
+        short to = fileId(toUnit);
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            if (pending.remaining() < RECORD_BYTES) {
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                pending.flip();
+                pending = larger.put(pending);
+            }
+            pending.putDouble(value).putDouble(result).putShort(from).putShort(to).putInt(check(value, result, from, to));
+            if (appended++ == durable) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every conversion appended so far has been written and forced to the file.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        synchronized (lock) {
+            long target = appended;
+            while (durable < target && !closed) {
+                lock.wait();
+            }
+        }
+    }
+
+    /**
+     * Returns the last records of the log, reading them through a memory mapping of the tail
+     * of the file. Records appended but not yet written are not included.
+     *
+     * @param count the maximum number of records to return
+     * @return the records, oldest first
+     * @throws IOException if the file cannot be read
+     */
+    public Tail readTail(int count) throws IOException {
+        return readTail(count, (channel.size() - HEADER_BYTES) / RECORD_BYTES);
+    }
+
+    /**
+     * Returns the last records the file held when the log was opened, i.e. the history of the
+     * previous runs. Unlike {@link #readTail(int)}, the result does not depend on how many
+     * conversions have been appended since, so it can be read while conversions are appended.
+     *
+     * @param count the maximum number of records to return
+     * @return the records, oldest first
+     * @throws IOException if the file cannot be read
+     */
+    public Tail readPrevious(int count) throws IOException {
+        return readTail(count, previous);
+    }
+
+    /**
+     * Returns the last of the given number of records at the start of the file.
+     *
+     * @param count the maximum number of records to return
+     * @param records the number of records the tail is read from
+     * @return the records, oldest first
+     * @throws IOException if the file cannot be read
+     */
+    private Tail readTail(int count, long records) throws IOException {
+        int rows = (int) Math.min(Math.max(count, 0), records);
+        Tail tail = new Tail(rows);
+        if (rows == 0) {
+            return tail;
+        }
+        long start = HEADER_BYTES + (records - rows) * RECORD_BYTES;
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, start, (long) rows * RECORD_BYTES);
+        // One bulk copy, then plain array arithmetic: a record is three little-endian longs
+        long[] words = new long[rows * (RECORD_BYTES / Long.BYTES)];
+        map.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words);
+        for (int i = 0; i < words.length; i += RECORD_BYTES / Long.BYTES) {
+            double value = Double.longBitsToDouble(words[i]);
+            double result = Double.longBitsToDouble(words[i + 1]);
+            long units = words[i + 2];
+            short from = (short) units;
+            short to = (short) (units >>> 16);
+            if ((int) (units >>> 32) == check(value, result, from, to)
+                    && from >= 0 && from < fileUnits.length && to >= 0 && to < fileUnits.length) {
+                tail.add(value, fileUnits[from], fileUnits[to], result);
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Returns the file of the log.
+     *
+     * @return the path of the file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Writes the remaining records, stops the writer thread and closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            fileLock.release();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes batches of appended records until the log is closed.
+     */
+    private void writeLoop() {
+        while (true) {
+            long batchEnd;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException ex) {
+                        // Only close() stops the writer
+                    }
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                batchEnd = appended;
+            }
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                channel.force(false);
+                writing.clear();
+            } catch (IOException ex) {
+                warn("Cannot write the history log " + path + "; history is no longer saved", ex);
+                synchronized (lock) {
+                    closed = true;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                durable = batchEnd;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the ID a unit is stored as in this log.
+     *
+     * @param unit the unit symbol
+     * @return the ID in the header's unit table
+     */
+    private short fileId(String unit) {
+        int id = registry.unitId(unit);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown unit: " + unit);
+        }
+        return fileIds[id];
+    }
+
+    /**
+     * Maps every registry unit to its ID in the header, adding the units the header lacks.
+     *
+     * @param header the header page
+     * @param units the units already in the header
+     * @return the units of the header after adding the missing ones
+     * @throws IOException if the header has no room for the missing units
+     */
+    private String[] addUnits(ByteBuffer header, String[] units) throws IOException {
+        String[] all = units;
+        header.position(UNITS_OFFSET);
+        for (String unit : units) {
+            header.position(header.position() + 1 + unit.getBytes(StandardCharsets.UTF_8).length);
+        }
+        for (int id = 0; id < fileIds.length; id++) {
+            String unit = registry.unit(id);
+            int index = Arrays.asList(all).indexOf(unit);
+            if (index < 0) {
+                byte[] symbol = unit.getBytes(StandardCharsets.UTF_8);
+                if (symbol.length > 255 || header.remaining() < 1 + symbol.length || all.length == Short.MAX_VALUE) {
+                    throw new IOException("History log unit table is full: " + path);
+                }
+                header.put((byte) symbol.length).put(symbol);
+                index = all.length;
+                all = Arrays.copyOf(all, all.length + 1);
+                all[index] = unit;
+            }
+            fileIds[id] = (short) index;
+        }
+        header.putInt(UNIT_COUNT_OFFSET, all.length);
+        return all;
+    }
+
+    /**
+     * Reads the unit table of a header.
+     *
+     * @param header the header page
+     * @return the unit symbols, indexed by the IDs stored in records
+     * @throws IOException if the table is corrupt
+     */
+    private String[] readUnits(ByteBuffer header) throws IOException {
+        int count = header.getInt(UNIT_COUNT_OFFSET);
+        if (count < 0 || count > HEADER_BYTES) {
+            throw new IOException("Corrupt history log header: " + path);
+        }
+        String[] units = new String[count];
+        int position = UNITS_OFFSET;
+        for (int i = 0; i < count; i++) {
+            int length = position < HEADER_BYTES ? header.get(position) & 0xFF : -1;
+            if (length < 0 || position + 1 + length > HEADER_BYTES) {
+                throw new IOException("Corrupt history log header: " + path);
+            }
+            units[i] = new String(header.array(), position + 1, length, StandardCharsets.UTF_8);
+            position += 1 + length;
+        }
+        return units;
+    }
+
+    /**
+     * Positional read filling a buffer.
+     *
+     * @param buffer the buffer to fill
+     * @param position the file position to read from
+     * @throws IOException if the file ends first or cannot be read
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Not a history log: " + path);
+            }
+        }
+    }
+
+    /**
+     * Positional write of a whole buffer.
+     *
+     * @param buffer the buffer to write
+     * @param position the file position to write to
+     * @throws IOException if the file cannot be written
+     */
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Locks a whole file without waiting.
+     *
+     * @param channel the channel of the file
+     * @return the lock, or null if another process or another log of this process holds it
+     * @throws IOException if the file cannot be locked
+     */
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Reports a log that cannot be opened, written or closed. The logger is looked up here
+     * rather than held in a static field, because initializing logging would add tens of
+     * milliseconds to opening the log at startup.
+     *
+     * @param message the message
+     * @param ex the cause
+     */
+    private static void warn(String message, Throwable ex) {
+        Logger logger = System.getLogger(HistoryLog.class.getName());
+        logger.log(Level.WARNING, message, ex);
+    }
+
+    /**
+     * Computes the check word of a record.
+     *
+     * @param value the original value
+     * @param result the converted value
+     * @param from the ID of the unit converted from
+     * @param to the ID of the unit converted to
+     * @return the check word
+     */
+    private static int check(double value, double result, short from, short to) {
+        long x = Double.doubleToRawLongBits(value) * 0x9E3779B97F4A7C15L
+                ^ Double.doubleToRawLongBits(result) ^ ((long) from << 16 | to & 0xFFFF) ^ 0x5DEECE66DL;
+        x = (x ^ x >>> 33) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ x >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return (int) (x ^ x >>> 33);
+    }
+
+    /**
+     * Records reloaded from the tail of a log, stored in primitive columns.
+     */
+    public static final class Tail {
+
+        /** No records. */
+        public static final Tail EMPTY = new Tail(0);
+
+        private final double[] values;
+        private final double[] results;
+        private final String[] fromUnits;
+        private final String[] toUnits;
+        private int size;
+
+        Tail(int capacity) {
+            values = new double[capacity];
+            results = new double[capacity];
+            fromUnits = new String[capacity];
+            toUnits = new String[capacity];
+        }
+
+        void add(double value, String fromUnit, String toUnit, double result) {
+            values[size] = value;
+            results[size] = result;
+            fromUnits[size] = fromUnit;
+            toUnits[size] = toUnit;
+            size++;
+        }
+
+        /**
+         * Returns the number of reloaded records.
+         *
+         * @return the number of records
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the original value of a record.
+         *
+         * @param index the record index, oldest first
+         * @return the original value
+         */
+        public double getValue(int index) {
+            return values[index];
+        }
+
+        /**
+         * Returns the result of a record.
+         *
+         * @param index the record index, oldest first
+         * @return the converted value
+         */
+        public double getResult(int index) {
+            return results[index];
+        }
+
+        /**
+         * Returns the unit converted from in a record.
+         *
+         * @param index the record index, oldest first
+         * @return the unit of the original value
+         */
+        public String getFromUnit(int index) {
+            return fromUnits[index];
+        }
+
+        /**
+         * Returns the unit converted to in a record.
+         *
+         * @param index the record index, oldest first
+         * @return the unit of the converted value
+         */
+        public String getToUnit(int index) {
+            return toUnits[index];
+        }
+    }
+
+    /**
+     * Holder of the shared log, opened when it is first requested.
+     */
+    private static final class Shared {
+
+        private static final HistoryLog LOG = open();
+
+        private static HistoryLog open() {
+            String file = System.getProperty("unitconverter.history.file",
+                    Paths.get(System.getProperty("user.home"), ".unitconverter", "history.bin").toString());
+            if (file.isEmpty()) {
+                return null;
+            }
+            try {
+                Path path = Paths.get(file).toAbsolutePath();
+                Files.createDirectories(path.getParent());
+                HistoryLog log = new HistoryLog(path);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        log.close();
+                    } catch (IOException ex) {
+                        warn("Cannot close the history log " + path, ex);
+                    }
+                }, "history-log-shutdown"));
+                return log;
+            } catch (IOException | RuntimeException ex) {
+                warn("Cannot open the history log " + file + "; history is not saved", ex);
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,797 @@
+package polsl;
+
+import Exceptions.NegativeValueException;
+import Model.ConversionStatus;
+import Model.Dimension;
+import Model.FixedDecimal;
+import Model.UnitRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The HttpService class serves conversions over HTTP on the loopback interface, for local
+ * services that convert values without embedding the JavaFX application. It uses the JDK's
+ * built-in {@link HttpServer} and, like {@link Cli}, never touches the JavaFX toolkit:
+ * <pre>
+ *   java -p UnitConverter-1.0.jar -m polsl/polsl.HttpService --port 8080 --cache 4096
+ * </pre>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code GET /convert?value=2.5&from=m&to=cm} converts one value and answers
+ *       {@code {"value":2.5,"from":"m","to":"cm","result":250.0}}. Results are memoized in a
+ *       {@link ConversionCache} unless the cache is disabled or the request adds {@code cache=false}.
+ *       With {@code exact=true} the value is converted as a decimal without rounding, bypassing the cache.
+ *       NaN and infinite values are invalid, and a result overflowing the range of doubles is {@code null}.</li>
+ *   <li>{@code POST /convert/batch?from=m&to=cm} converts every value of the body with the bulk
+ *       model API. A body starting with {@code [} is read as a JSON array and answered with one;
+ *       any other body is read as one value per line and answered the same way. Rejected values
+ *       are answered as {@code null} or {@code NaN} and counted in the {@code X-Rejected} header;
+ *       a JSON array answers {@code null} for any result that is not finite as well. A batch holds
+ *       at most 1,048,576 values, and its answer is streamed in chunks.</li>
+ *   <li>{@code GET /stats} reports the request counts and latency percentiles of both endpoints
+ *       and the cache counters.</li>
+ * </ul>
+ * The model-level {@link ConverterMetrics} are published over JMX as well.
+ * Invalid requests, including query parameters that cannot be decoded, are answered with
+ * status 400 and a {@code {"error":"..."}} body.
+ * <p>
+ * Requests are handled on virtual threads when the runtime provides them (Java 21 and later),
+ * otherwise on a cached pool of platform threads.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class HttpService {
+
+    /** Port listened on when none is given. */
+    private static final int DEFAULT_PORT = 8080;
+
+    /** Capacity of the conversion cache when none is given. */
+    private static final int DEFAULT_CACHE = 4096;
+
+    /** Number of pending connections the server queues. */
+    private static final int BACKLOG = 1024;
+
+    /** Largest accepted batch body, in bytes. */
+    private static final int MAX_BODY = 64 << 20;
+
+    /** Largest number of values in a batch, which bounds the arrays a batch allocates. */
+    static final int MAX_VALUES = 1 << 20;
+
+    /** Size of the buffer a batch response is streamed through, in bytes. */
+    private static final int RESPONSE_CHUNK = 64 << 10;
+
+    /** Content type of the JSON responses. */
+    private static final String JSON = "application/json";
+
+    /** Content type of the newline-delimited responses. */
+    private static final String TEXT = "text/plain; charset=utf-8";
+
+    /** Percentiles reported by the stats endpoint. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** Names of the reported percentiles. */
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /** Exit status of a normal start. */
+    private static final int EXIT_OK = 0;
+
+    /** Exit status of invalid arguments or a failed start. */
+    private static final int EXIT_ERROR = 2;
+
+    /** The HTTP server. */
+    private final HttpServer server;
+
+    /** Executor handling the requests. */
+    private final ExecutorService executor;
+
+    /** Whether the executor runs every request on its own virtual thread. */
+    private final boolean virtualThreads;
+
+    /** Latency of the single-value endpoint. */
+    private final LatencyHistogram convertLatency = new LatencyHistogram();
+
+    /** Latency of the batch endpoint. */
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+    /** Number of values converted by the batch endpoint. */
+    private final LongAdder batchValues = new LongAdder();
+
+    /** Memoized single-value conversions, or null if caching is disabled. */
+    private final ConversionCache cache;
+
+    /** Time the service was created, from {@link System#nanoTime()}. */
+    private final long created = System.nanoTime();
+
+    /**
+     * Constructs an HttpService listening on a loopback port. The service does not accept
+     * requests until it is started.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param cacheCapacity the capacity of the conversion cache, or 0 to disable it
+     * @throws IOException if the port cannot be bound
+     */
+    public HttpService(int port, int cacheCapacity) throws IOException {
+        cache = cacheCapacity > 0 ? new ConversionCache(cacheCapacity) : null;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/convert", timed(convertLatency, this::convert));
+        server.createContext("/convert/batch", timed(batchLatency, this::convertBatch));
+        server.createContext("/stats", this::stats);
+    }
+
+    /**
+     * The entry point of the conversion service.
+     *
+     * @param args command-line arguments: [--port PORT] [--cache ENTRIES]
+     */
+    public static void main(String[] args) {
+        int status = run(args);
+        if (status != EXIT_OK) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Parses the arguments and starts the service, which keeps running after this method returns.
+     *
+     * @param args command-line arguments
+     * @return the exit status
+     */
+    static int run(String[] args) {
+        int port = DEFAULT_PORT;
+        int cacheCapacity = DEFAULT_CACHE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    try {
+                        port = Integer.parseInt(++i < args.length ? args[i] : "");
+                    } catch (NumberFormatException ex) {
+                        return usageError("--port must be a number");
+                    }
+                    break;
+                case "--cache":
+                    try {
+                        cacheCapacity = Integer.parseInt(++i < args.length ? args[i] : "");
+                    } catch (NumberFormatException ex) {
+                        return usageError("--cache must be a number");
+                    }
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage(System.out);
+                    return EXIT_OK;
+                default:
+                    return usageError("Unknown argument: " + args[i]);
+            }
+        }
+        HttpService service;
+        try {
+            service = new HttpService(port, cacheCapacity);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Cannot listen on port " + port + ": " + ex.getMessage());
+            return EXIT_ERROR;
+        }
+        service.start();
+        ConverterMetrics.register();
+        Runtime.getRuntime().addShutdownHook(new Thread(service::stop, "http-shutdown"));
+        System.err.println("Listening on http://" + service.getAddress().getHostString() + ":" + service.getAddress().getPort()
+                + (service.virtualThreads ? " (virtual threads)" : " (platform threads)"));
+        return EXIT_OK;
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, lets the running ones finish for up to a second and
+     * shuts the executor down.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the address the service listens on.
+     *
+     * @return the loopback address and bound port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Handles {@code GET /convert?value=V&from=U&to=U}.
+     *
+     * @param exchange the request and response
+     * @throws IOException if the response cannot be sent
+     */
+    private void convert(HttpExchange exchange) throws IOException {
+        if (!"/convert".equals(exchange.getRequestURI().getPath())) {
+            error(exchange, 404, "Not found");
+            return;
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            error(exchange, 405, "Use GET");
+            return;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        String text = parameter(query, "value");
+        String from = parameter(query, "from");
+        String to = parameter(query, "to");
+        Dimension dimension = dimension(from, to);
+        if (dimension == null) {
+            error(exchange, 400, "Cannot convert from " + from + " to " + to);
+            return;
+        }
+        if ("true".equals(parameter(query, "exact"))) {
+            convertExact(exchange, dimension, text, from, to);
+            return;
+        }
+        double[] value = new double[1];
+        if (text == null || NumberParser.parse(text, value, 0) != NumberParser.OK) {
+            error(exchange, 400, "Invalid Input. Please enter a number");
+            return;
+        }
+        if (!Double.isFinite(value[0])) {
+            error(exchange, 400, "Invalid Input. Please enter a finite number");
+            return;
+        }
+        int pair = cache == null || "false".equals(parameter(query, "cache")) ? -1 : UnitRegistry.standard().pairId(from, to);
+        ConversionCache.Entry entry = pair < 0 ? null : cache.get(pair, value[0]);
+        NumberFormatter formatter = new NumberFormatter();
+        String result;
+        if (entry != null) {
+            result = entry.getText();
+        } else {
+            double converted;
+            try {
+                converted = dimension.convert(value[0], from, to);
+            } catch (NegativeValueException ex) {
+                error(exchange, 400, "Invalid Input. " + ex.getMessage());
+                return;
+            }
+            if (Double.isFinite(converted)) {
+                byte[] digits = new byte[NumberFormatter.MAX_LENGTH];
+                result = new String(digits, 0, formatter.format(converted, digits, 0), StandardCharsets.US_ASCII);
+            } else {
+                // JSON has no NaN or Infinity, e.g. for a result overflowing the range of doubles
+                result = "null";
+            }
+            if (pair >= 0) {
+                cache.put(pair, value[0], converted, result);
+            }
+        }
+        byte[] body = new byte[2 * NumberFormatter.MAX_LENGTH + from.length() + to.length() + 40];
+        int end = ascii("{\"value\":", body, 0);
+        end = formatter.format(value[0], body, end);
+        end = ascii(",\"from\":\"", body, end);
+        end = ascii(from, body, end);
+        end = ascii("\",\"to\":\"", body, end);
+        end = ascii(to, body, end);
+        end = ascii("\",\"result\":", body, end);
+        end = ascii(result, body, end);
+        body[end++] = '}';
+        respond(exchange, 200, JSON, body, end);
+    }
+
+    /**
+     * Answers {@code GET /convert} with {@code exact=true}, converting the value as a decimal.
+     *
+     * @param exchange the request and response
+     * @param dimension the dimension of the unit pair
+     * @param text the value parameter, may be null
+     * @param from the unit to convert from
+     * @param to the unit to convert to
+     * @throws IOException if the response cannot be sent
+     */
+    private void convertExact(HttpExchange exchange, Dimension dimension, String text, String from, String to) throws IOException {
+        FixedDecimal value = new FixedDecimal();
+        if (text == null || !value.parse(text)) {
+            error(exchange, 400, "Invalid Input. Please enter a number");
+            return;
+        }
+        FixedDecimal result = new FixedDecimal();
+        try {
+            dimension.convertExact(value, from, to, result);
+        } catch (NegativeValueException ex) {
+            error(exchange, 400, "Invalid Input. " + ex.getMessage());
+            return;
+        }
+        StringBuilder json = new StringBuilder("{\"value\":");
+        value.appendTo(json).append(",\"from\":\"").append(from).append("\",\"to\":\"").append(to).append("\",\"result\":");
+        byte[] body = result.appendTo(json).append('}').toString().getBytes(StandardCharsets.UTF_8);
+        respond(exchange, 200, JSON, body, body.length);
+    }
+
+    /**
+     * Handles {@code POST /convert/batch?from=U&to=U} with a JSON array or newline-delimited body.
+     *
+     * @param exchange the request and response
+     * @throws IOException if the request cannot be read or the response cannot be sent
+     */
+    private void convertBatch(HttpExchange exchange) throws IOException {
+        if (!"/convert/batch".equals(exchange.getRequestURI().getPath())) {
+            error(exchange, 404, "Not found");
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            error(exchange, 405, "Use POST");
+            return;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        String from = parameter(query, "from");
+        String to = parameter(query, "to");
+        Dimension dimension = dimension(from, to);
+        if (dimension == null) {
+            error(exchange, 400, "Cannot convert from " + from + " to " + to);
+            return;
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY + 1);
+        }
+        if (body.length > MAX_BODY) {
+            error(exchange, 413, "Body larger than " + MAX_BODY + " bytes");
+            return;
+        }
+
+        int start = 0;
+        while (start < body.length && isWhitespace(body[start])) {
+            start++;
+        }
+        boolean json = start < body.length && body[start] == '[';
+        Batch batch = json ? Batch.parseArray(body, start + 1) : Batch.parseLines(body);
+        if (batch.error != null) {
+            error(exchange, batch.tooMany ? 413 : 400, batch.error);
+            return;
+        }
+
+        int count = batch.count;
+        double[] results = new double[count];
+        byte[] statuses = new byte[count];
+        int rejected = dimension.convert(batch.values, results, statuses, 0, count, from, to);
+        batchValues.add(count);
+
+        exchange.getResponseHeaders().set("X-Rejected", Integer.toString(rejected));
+        exchange.getResponseHeaders().set("Content-Type", json ? JSON : TEXT);
+        exchange.sendResponseHeaders(200, 0);
+        NumberFormatter formatter = new NumberFormatter();
+        byte[] out = new byte[RESPONSE_CHUNK];
+        try (OutputStream stream = exchange.getResponseBody()) {
+            int end = 0;
+            if (json) {
+                out[end++] = '[';
+            }
+            for (int i = 0; i < count; i++) {
+                // Room for a separator, a value and a line feed
+                if (end > out.length - NumberFormatter.MAX_LENGTH - 2) {
+                    stream.write(out, 0, end);
+                    end = 0;
+                }
+                if (json && i > 0) {
+                    out[end++] = ',';
+                }
+                if (json && (statuses[i] != ConversionStatus.OK || !Double.isFinite(results[i]))) {
+                    end = ascii("null", out, end);
+                } else {
+                    end = formatter.format(results[i], out, end);
+                }
+                if (!json) {
+                    out[end++] = '\n';
+                }
+            }
+            if (json) {
+                out[end++] = ']';
+            }
+            stream.write(out, 0, end);
+        }
+    }
+
+    /**
+     * Handles {@code GET /stats}.
+     *
+     * @param exchange the request and response
+     * @throws IOException if the response cannot be sent
+     */
+    private void stats(HttpExchange exchange) throws IOException {
+        try {
+            if (!"/stats".equals(exchange.getRequestURI().getPath())) {
+                error(exchange, 404, "Not found");
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                error(exchange, 405, "Use GET");
+                return;
+            }
+            NumberFormatter formatter = new NumberFormatter(4);
+            StringBuilder json = new StringBuilder(512);
+            json.append("{\"uptimeSeconds\":");
+            append(json, formatter, (System.nanoTime() - created) / 1e9);
+            json.append(",\"threads\":\"").append(virtualThreads ? "virtual" : "platform").append('"');
+            json.append(",\"convert\":");
+            append(json, formatter, convertLatency);
+            json.append("},\"batch\":");
+            append(json, formatter, batchLatency);
+            json.append(",\"values\":").append(batchValues.sum()).append('}');
+            if (cache != null) {
+                json.append(",\"cache\":{\"size\":").append(cache.size());
+                json.append(",\"capacity\":").append(cache.capacity());
+                json.append(",\"hits\":").append(cache.getHits());
+                json.append(",\"misses\":").append(cache.getMisses());
+                json.append(",\"hitRate\":");
+                append(json, formatter, cache.getHitRate());
+                json.append(",\"evictions\":").append(cache.getEvictions());
+                json.append(",\"rejections\":").append(cache.getRejections()).append('}');
+            }
+            json.append('}');
+            byte[] body = json.toString().getBytes(StandardCharsets.US_ASCII);
+            respond(exchange, 200, JSON, body, body.length);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Wraps a handler so that its latency is recorded and unexpected failures are answered with status 500.
+     *
+     * @param histogram the histogram receiving the latency of every request
+     * @param handler the handler
+     * @return the wrapping handler
+     */
+    private static HttpHandler timed(LatencyHistogram histogram, HttpHandler handler) {
+        return exchange -> {
+            long start = System.nanoTime();
+            try {
+                handler.handle(exchange);
+            } catch (InvalidRequestException ex) {
+                error(exchange, 400, ex.getMessage());
+            } catch (RuntimeException ex) {
+                error(exchange, 500, ex.toString());
+            } finally {
+                exchange.close();
+                histogram.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * Appends the count and latency percentiles of a histogram, in microseconds, as a JSON object
+     * left open for further members.
+     *
+     * @param json the builder to append to
+     * @param formatter the formatter of the latencies
+     * @param histogram the histogram
+     */
+    private static void append(StringBuilder json, NumberFormatter formatter, LatencyHistogram histogram) {
+        long[] values = histogram.percentiles(PERCENTILES);
+        json.append("{\"count\":").append(histogram.getCount());
+        json.append(",\"meanMicros\":");
+        append(json, formatter, histogram.getMean() / 1e3);
+        for (int i = 0; i < values.length; i++) {
+            json.append(",\"").append(PERCENTILE_NAMES[i]).append("Micros\":");
+            append(json, formatter, values[i] / 1e3);
+        }
+        json.append(",\"maxMicros\":");
+        append(json, formatter, histogram.getMax() / 1e3);
+    }
+
+    /**
+     * Appends a number.
+     *
+     * @param json the builder to append to
+     * @param formatter the formatter of the number
+     * @param value the number
+     */
+    private static void append(StringBuilder json, NumberFormatter formatter, double value) {
+        char[] text = new char[NumberFormatter.MAX_LENGTH];
+        json.append(text, 0, formatter.format(value, text, 0));
+    }
+
+    /**
+     * Returns the dimension of a unit pair.
+     *
+     * @param from the unit to convert from
+     * @param to the unit to convert to
+     * @return the dimension both units belong to, or null if either is missing or they differ
+     */
+    private static Dimension dimension(String from, String to) {
+        Dimension dimension = from == null ? null : Dimension.ofUnit(from);
+        return dimension != null && to != null && dimension.hasUnit(to) ? dimension : null;
+    }
+
+    /**
+     * Returns the decoded value of a query parameter.
+     *
+     * @param query the raw query string, may be null
+     * @param name the parameter name
+     * @return the value of the first parameter with the name, or null if there is none
+     * @throws InvalidRequestException if the value has a malformed escape
+     */
+    static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals == name.length() && pair.startsWith(name)) {
+                try {
+                    return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException ex) {
+                    throw new InvalidRequestException("Malformed escape in the " + name + " parameter");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Answers a request with an error message.
+     *
+     * @param exchange the request and response
+     * @param status the HTTP status
+     * @param message the error message
+     * @throws IOException if the response cannot be sent
+     */
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder(message.length() + 16).append("{\"error\":\"");
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        byte[] body = json.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+        respond(exchange, status, JSON, body, body.length);
+    }
+
+    /**
+     * Sends a response.
+     *
+     * @param exchange the request and response
+     * @param status the HTTP status
+     * @param contentType the content type of the body
+     * @param body the buffer holding the body
+     * @param length the length of the body
+     * @throws IOException if the response cannot be sent
+     */
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body, int length)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        if (length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Writes an ASCII string.
+     *
+     * @param text the text
+     * @param buffer the buffer to write to
+     * @param index the index of the first byte
+     * @return the index after the last byte
+     */
+    private static int ascii(String text, byte[] buffer, int index) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[index++] = (byte) text.charAt(i);
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether a byte is JSON whitespace.
+     *
+     * @param b the byte
+     * @return true for space, tab, carriage return and line feed
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * Returns whether a range of bytes holds only whitespace.
+     *
+     * @param bytes the bytes
+     * @param from the index of the first byte
+     * @param to the index after the last byte
+     * @return true if every byte in the range is whitespace
+     */
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(bytes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task, looked up reflectively
+     * so that the service still compiles for and runs on Java 11.
+     *
+     * @return the executor, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Reports an invalid command line.
+     *
+     * @param message the problem with the arguments
+     * @return the exit status for invalid arguments
+     */
+    private static int usageError(String message) {
+        System.err.println(message);
+        printUsage(System.err);
+        return EXIT_ERROR;
+    }
+
+    /**
+     * Prints the command line syntax.
+     *
+     * @param stream the stream to print to
+     */
+    private static void printUsage(PrintStream stream) {
+        stream.println("Usage: polsl.HttpService [--port PORT] [--cache ENTRIES]");
+        stream.println("  Serves GET /convert?value=V&from=U&to=U, POST /convert/batch?from=U&to=U");
+        stream.println("  and GET /stats on 127.0.0.1, port " + DEFAULT_PORT + " by default.");
+        stream.println("  Single conversions are cached, " + DEFAULT_CACHE + " entries by default; --cache 0 disables it.");
+    }
+
+    /**
+     * The values of a batch request body.
+     */
+    private static final class Batch {
+
+        /** The parsed values. */
+        double[] values = new double[64];
+
+        /** Number of parsed values. */
+        int count;
+
+        /** Why the body could not be parsed, or null if it was. */
+        String error;
+
+        /** Whether the body holds more than {@link #MAX_VALUES} values. */
+        boolean tooMany;
+
+        /**
+         * Parses a JSON array of numbers.
+         *
+         * @param body the request body
+         * @param start the index after the opening bracket
+         * @return the parsed values or the parse error
+         */
+        static Batch parseArray(byte[] body, int start) {
+            Batch batch = new Batch();
+            int end = body.length;
+            while (end > start && isWhitespace(body[end - 1])) {
+                end--;
+            }
+            if (end == start || body[end - 1] != ']') {
+                batch.error = "Missing ] at the end of the array";
+                return batch;
+            }
+            end--;
+            int from = start;
+            while (from < end && isWhitespace(body[from])) {
+                from++;
+            }
+            if (from == end) {
+                return batch;
+            }
+            while (from <= end) {
+                int to = from;
+                while (to < end && body[to] != ',') {
+                    to++;
+                }
+                if (!batch.add(body, from, to)) {
+                    batch.error = batch.tooMany ? "More than " + MAX_VALUES + " values" : "Invalid number at index " + batch.count;
+                    return batch;
+                }
+                from = to + 1;
+            }
+            return batch;
+        }
+
+        /**
+         * Parses one number per line, skipping blank lines.
+         *
+         * @param body the request body
+         * @return the parsed values or the parse error
+         */
+        static Batch parseLines(byte[] body) {
+            Batch batch = new Batch();
+            int line = 1;
+            for (int from = 0; from < body.length; line++) {
+                int to = from;
+                while (to < body.length && body[to] != '\n') {
+                    to++;
+                }
+                if (!isBlank(body, from, to) && !batch.add(body, from, to)) {
+                    batch.error = batch.tooMany ? "More than " + MAX_VALUES + " values" : "Invalid number on line " + line;
+                    return batch;
+                }
+                from = to + 1;
+            }
+            return batch;
+        }
+
+        /**
+         * Parses and appends one value.
+         *
+         * @param body the request body
+         * @param from the index of the first byte of the value
+         * @param to the index after the last byte of the value
+         * @return false if the bytes are not a number or the batch already holds {@link #MAX_VALUES} values
+         */
+        boolean add(byte[] body, int from, int to) {
+            if (count == MAX_VALUES) {
+                tooMany = true;
+                return false;
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            if (NumberParser.parse(body, from, to - from, values, count) != NumberParser.OK) {
+                return false;
+            }
+            count++;
+            return true;
+        }
+    }
+
+    /**
+     * Thrown by a handler for a request that cannot be served as sent; answered with status 400.
+     */
+    static final class InvalidRequestException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs an InvalidRequestException.
+         *
+         * @param message why the request is invalid
+         */
+        InvalidRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package polsl;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class records durations in nanoseconds from many threads at once and
+ * reports their percentiles. Recording is lock-free and allocation-free: every duration
+ * increments one counter of a log-linear bucket array, in which each power of two is split
+ * into 32 buckets, so a reported percentile is within about 3% of the recorded duration.
+ * The counters are striped {@link LongAdder}s, so threads recording similar durations do not
+ * contend on the same bucket.
+ * Durations of 2^41 ns, about 36.6 minutes, or more are counted in the last bucket.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    /** Number of bits of a duration kept below its leading bit. */
+    private static final int SUB_BITS = 5;
+
+    /** Number of buckets per power of two. */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /** Bit position of the leading bit of the largest durations told apart, which are below 2^41 ns. */
+    private static final int MAX_EXPONENT = 40;
+
+    /** Largest duration told apart, 2^41 - 1 ns or about 36.6 minutes; longer ones are counted as this. */
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT + 1) - 1;
+
+    /** Number of recordings per bucket. */
+    private final LongAdder[] counts = new LongAdder[bucket(MAX_VALUE) + 1];
+
+    /** Number of recordings. */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of the recorded durations. */
+    private final LongAdder sum = new LongAdder();
+
+    /** Longest recorded duration. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds; negative durations are counted as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(Math.min(value, MAX_VALUE))].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recordings
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the durations at the given percentiles, computed over one consistent pass of the buckets.
+     * Each percentile is reported as the upper bound of the bucket it falls in.
+     *
+     * @param percentiles the percentiles, from 0 to 100, in ascending order
+     * @return the duration in nanoseconds at each percentile, all 0 if nothing was recorded
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] snapshot = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * total));
+            while (seen < rank && bucket < snapshot.length - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[p] = Math.min(upperBound(bucket), getMax());
+        }
+        return values;
+    }
+
+    /**
+     * Discards every recorded duration. Durations recorded while the histogram is being reset
+     * may be partly kept, e.g. counted without their bucket.
+     */
+    public void reset() {
+        for (LongAdder bucket : counts) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the bucket of a duration.
+     *
+     * @param value a duration from 0 to {@link #MAX_VALUE}
+     * @return the bucket index
+     */
+    private static int bucket(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest duration counted in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the upper bound of the bucket in nanoseconds
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lower = (long) (bucket % SUB_COUNT + SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
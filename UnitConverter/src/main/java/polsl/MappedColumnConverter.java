@@ -0,0 +1,171 @@
+package polsl;
+
+import Exceptions.NegativeValueException;
+import Model.Dimension;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MappedColumnConverter class converts a binary file holding a single column of
+ * little-endian {@code double} values. The input is memory-mapped in fixed-size windows,
+ * each window is converted through the bulk model API, and the results are written either
+ * back into the input mapping or into a mapped output file of the same size.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class MappedColumnConverter {
+
+    /** Size of each mapped window in bytes, a multiple of the size of a double. */
+    static final long WINDOW_BYTES = 64L << 20;
+
+    /** Number of values copied out of a window and converted together. */
+    private static final int CHUNK_SIZE = 8192;
+
+    /** Dimension of the unit pair. */
+    private final Dimension dimension;
+
+    /** Unit the values are converted from. */
+    private final String fromUnit;
+
+    /** Unit the values are converted to. */
+    private final String toUnit;
+
+    /** Values of the current chunk, converted in place. */
+    private final double[] chunk = new double[CHUNK_SIZE];
+
+    /**
+     * Constructs a MappedColumnConverter for the given unit pair.
+     *
+     * @param dimension the dimension both units belong to
+     * @param fromUnit the unit of the stored values
+     * @param toUnit the unit to convert the values to
+     */
+    public MappedColumnConverter(Dimension dimension, String fromUnit, String toUnit) {
+        this.dimension = dimension;
+        this.fromUnit = fromUnit;
+        this.toUnit = toUnit;
+    }
+
+    /**
+     * Converts every value of the input file.
+     * When the output is null or the same file as the input, the input is converted in place;
+     * the whole file is then checked for values the model rejects before any value is written,
+     * so a rejected file is left unchanged. When converting into a separate output file,
+     * windows converted before a rejected value is found are kept in the output.
+     *
+     * @param input the file of little-endian doubles to convert
+     * @param output the file receiving the converted values, or null to convert in place
+     * @return the number of converted values
+     * @throws IOException if the input size is not a multiple of 8 bytes or the files cannot be mapped
+     * @throws NegativeValueException if a value is rejected by the model, with its index in the message
+     */
+    public long convert(Path input, Path output) throws IOException, NegativeValueException {
+        boolean inPlace = output == null || (Files.exists(output) && Files.isSameFile(input, output));
+        try (FileChannel in = inPlace
+                ? FileChannel.open(input, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = inPlace ? null
+                : FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            if (size % Double.BYTES != 0) {
+                throw new IOException("File size is not a multiple of " + Double.BYTES + " bytes: " + input);
+            }
+            if (inPlace && !dimension.acceptsNegative()) {
+                checkNonNegative(in, size);
+            }
+            for (long position = 0; position < size; position += WINDOW_BYTES) {
+                long length = Math.min(WINDOW_BYTES, size - position);
+                MappedByteBuffer source = in.map(inPlace ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                        position, length);
+                MappedByteBuffer target = inPlace ? source : out.map(FileChannel.MapMode.READ_WRITE, position, length);
+                convertWindow(source.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(),
+                        target.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(), position / Double.BYTES);
+            }
+            return size / Double.BYTES;
+        }
+    }
+
+    /**
+     * Checks every value of a file, window by window through read-only mappings, without converting it.
+     *
+     * @param channel the channel of the file to check
+     * @param size the size of the file in bytes
+     * @throws IOException if the file cannot be mapped
+     * @throws NegativeValueException if a value is negative, with its index in the message
+     */
+    private void checkNonNegative(FileChannel channel, long size) throws IOException, NegativeValueException {
+        for (long position = 0; position < size; position += WINDOW_BYTES) {
+            long length = Math.min(WINDOW_BYTES, size - position);
+            DoubleBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            long index = position / Double.BYTES;
+            while (values.hasRemaining()) {
+                int count = Math.min(CHUNK_SIZE, values.remaining());
+                values.get(chunk, 0, count);
+                int negative = firstNegative(count);
+                if (chunk[negative] < 0) {
+                    throw rejected(chunk[negative], index + negative);
+                }
+                index += count;
+            }
+        }
+    }
+
+    /**
+     * Converts a single mapped window, chunk by chunk.
+     *
+     * @param source the values of the window
+     * @param target the buffer receiving the converted values, may share memory with the source
+     * @param firstIndex the index of the window's first value in the file
+     * @throws NegativeValueException if a value is rejected by the model
+     */
+    private void convertWindow(DoubleBuffer source, DoubleBuffer target, long firstIndex) throws NegativeValueException {
+        long index = firstIndex;
+        while (source.hasRemaining()) {
+            int count = Math.min(CHUNK_SIZE, source.remaining());
+            source.get(chunk, 0, count);
+            try {
+                dimension.convert(chunk, chunk, 0, count, fromUnit, toUnit);
+            } catch (NegativeValueException ex) {
+                int negative = firstNegative(count);
+                throw rejected(chunk[negative], index + negative);
+            }
+            target.put(chunk, 0, count);
+            index += count;
+        }
+    }
+
+    /**
+     * Locates the first negative value of the current chunk.
+     *
+     * @param count the number of values in the chunk
+     * @return the index of the first negative value within the chunk, or 0 if there is none
+     */
+    private int firstNegative(int count) {
+        for (int i = 0; i < count; i++) {
+            if (chunk[i] < 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Creates the exception for a rejected value of the file.
+     *
+     * @param value the rejected value
+     * @param index the index of the value in the file
+     * @return the exception, with the index in its message
+     */
+    private static NegativeValueException rejected(double value, long index) {
+        return new NegativeValueException(NegativeValueException.forValue(value).getMessage() + " (value index " + index + ")");
+    }
+}
@@ -0,0 +1,564 @@
+package polsl;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * The NumberFormatter class writes doubles as text into caller-supplied {@code char[]} or
+ * {@code byte[]} buffers, optionally followed by a unit symbol, without intermediate strings.
+ * <p>
+ * By default a value is written with the fewest decimal digits that parse back to the same
+ * double, computed with the Schubfach algorithm, in the layout of {@link Double#toString(double)}:
+ * plain notation such as {@code 2.5} or {@code 0.001} for magnitudes from 10<sup>-3</sup> to below
+ * 10<sup>7</sup>, and computerized scientific notation such as {@code 1.0E-5} otherwise.
+ * A formatter can instead be created with a number of significant digits; values are then rounded
+ * half up from their shortest digits to at most that many digits, with trailing zeros dropped.
+ * <p>
+ * A formatter holds a small scratch buffer, so an instance must not be shared between threads.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class NumberFormatter {
+
+    /** Largest number of characters written for a value, e.g. {@code -2.2250738585072014E-308}. */
+    public static final int MAX_LENGTH = 24;
+
+    /** Number of digits of the decimal significand handled by the digit extraction. */
+    private static final int H = 17;
+
+    /** Smallest binary exponent of a double, that of the subnormals. */
+    private static final int Q_MIN = -1074;
+
+    /** Implicit leading bit of the significand of a normal double. */
+    private static final long C_MIN = 1L << 52;
+
+    /** Subnormal significands below this are scaled by 10 so that the result keeps enough digits. */
+    private static final long C_TINY = 3;
+
+    /** Smallest power of ten in the Schubfach table. */
+    private static final int K_MIN = -324;
+
+    /** Largest power of ten in the Schubfach table. */
+    private static final int K_MAX = 292;
+
+    /** Mask of the low 63 bits. */
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    /** Mask of the 28 fractional bits used by the digit extraction. */
+    private static final int MASK_28 = (1 << 28) - 1;
+
+    /** Powers of ten that fit in a long. */
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+        10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    /** Maximum number of significant digits, or 0 for the shortest round-trip digits. */
+    private final int significantDigits;
+
+    /** Scratch buffer the digits are written to before being copied into the caller's buffer. */
+    private final byte[] scratch = new byte[MAX_LENGTH];
+
+    /** Decimal significand of the value being formatted. */
+    private long decimalSignificand;
+
+    /** Decimal exponent of the value being formatted. */
+    private int decimalExponent;
+
+    /**
+     * Constructs a NumberFormatter writing the shortest round-trip digits.
+     */
+    public NumberFormatter() {
+        this.significantDigits = 0;
+    }
+
+    /**
+     * Constructs a NumberFormatter writing at most the given number of significant digits.
+     *
+     * @param significantDigits the maximum number of significant digits, from 1 to 17
+     * @throws IllegalArgumentException if the number of digits is out of range
+     */
+    public NumberFormatter(int significantDigits) {
+        if (significantDigits < 1 || significantDigits > H) {
+            throw new IllegalArgumentException("Significant digits must be between 1 and " + H + ": " + significantDigits);
+        }
+        this.significantDigits = significantDigits;
+    }
+
+    /**
+     * Writes a value into a byte buffer as ASCII.
+     *
+     * @param value the value to write
+     * @param buffer the buffer to write to, with at least {@link #MAX_LENGTH} bytes free after the offset
+     * @param offset the index of the first byte to write
+     * @return the index after the last byte written
+     * @throws IndexOutOfBoundsException if the buffer is too small; the buffer is then left unchanged
+     */
+    public int format(double value, byte[] buffer, int offset) {
+        int length = write(value, scratch, 0);
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        System.arraycopy(scratch, 0, buffer, offset, length);
+        return offset + length;
+    }
+
+    /**
+     * Writes a value into a character buffer.
+     *
+     * @param value the value to write
+     * @param buffer the buffer to write to, with at least {@link #MAX_LENGTH} characters free after the offset
+     * @param offset the index of the first character to write
+     * @return the index after the last character written
+     * @throws IndexOutOfBoundsException if the buffer is too small; the buffer is then left unchanged
+     */
+    public int format(double value, char[] buffer, int offset) {
+        int length = write(value, scratch, 0);
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] = (char) scratch[i];
+        }
+        return offset + length;
+    }
+
+    /**
+     * Writes a value followed by a space and a unit symbol into a byte buffer.
+     * The unit symbol is written one byte per character, so it must be ASCII.
+     *
+     * @param value the value to write
+     * @param unit the unit symbol, e.g. "cm"
+     * @param buffer the buffer to write to
+     * @param offset the index of the first byte to write
+     * @return the index after the last byte written
+     * @throws IndexOutOfBoundsException if the buffer is too small; the buffer is then left unchanged
+     */
+    public int format(double value, String unit, byte[] buffer, int offset) {
+        int length = write(value, scratch, 0);
+        Objects.checkFromIndexSize(offset, length + 1 + unit.length(), buffer.length);
+        System.arraycopy(scratch, 0, buffer, offset, length);
+        int end = offset + length;
+        buffer[end++] = ' ';
+        for (int i = 0; i < unit.length(); i++) {
+            buffer[end++] = (byte) unit.charAt(i);
+        }
+        return end;
+    }
+
+    /**
+     * Writes a value followed by a space and a unit symbol into a character buffer.
+     *
+     * @param value the value to write
+     * @param unit the unit symbol, e.g. "cm"
+     * @param buffer the buffer to write to
+     * @param offset the index of the first character to write
+     * @return the index after the last character written
+     * @throws IndexOutOfBoundsException if the buffer is too small; the buffer is then left unchanged
+     */
+    public int format(double value, String unit, char[] buffer, int offset) {
+        int length = write(value, scratch, 0);
+        Objects.checkFromIndexSize(offset, length + 1 + unit.length(), buffer.length);
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] = (char) scratch[i];
+        }
+        int end = offset + length;
+        buffer[end++] = ' ';
+        unit.getChars(0, unit.length(), buffer, end);
+        return end + unit.length();
+    }
+
+    /**
+     * Returns a value followed by a space and a unit symbol as a string, for display.
+     * Creates a character buffer for the text and then the string.
+     *
+     * @param value the value to format
+     * @param unit the unit symbol
+     * @return the formatted text, e.g. "2.5 m"
+     */
+    public String toString(double value, String unit) {
+        char[] text = new char[MAX_LENGTH + 1 + unit.length()];
+        return new String(text, 0, format(value, unit, text, 0));
+    }
+
+    /**
+     * Returns the maximum number of significant digits written.
+     *
+     * @return the number of significant digits, or 0 for the shortest round-trip digits
+     */
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    /**
+     * Writes a value, handling the special values and delegating finite ones to Schubfach.
+     *
+     * @param value the value to write
+     * @param buffer the buffer to write to
+     * @param offset the index of the first byte to write
+     * @return the index after the last byte written
+     */
+    private int write(double value, byte[] buffer, int offset) {
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & C_MIN - 1;
+        int bq = (int) (bits >>> 52) & 0x7FF;
+        if (bq == 0x7FF) {
+            return ascii(t != 0 ? "NaN" : bits > 0 ? "Infinity" : "-Infinity", buffer, offset);
+        }
+        int index = offset;
+        if (bits < 0) {
+            buffer[index++] = '-';
+        }
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            if (0 < mq && mq < 53 && (c >> mq) << mq == c) {
+                // An integer below 2^53: its digits are exact
+                decimalSignificand = c >> mq;
+                decimalExponent = 0;
+            } else {
+                toDecimal(-mq, c, 0);
+            }
+        } else if (t != 0) {
+            if (t < C_TINY) {
+                toDecimal(Q_MIN, 10 * t, -1);
+            } else {
+                toDecimal(Q_MIN, t, 0);
+            }
+        } else {
+            decimalSignificand = 0;
+        }
+        if (decimalSignificand == 0) {
+            buffer[index++] = '0';
+            buffer[index++] = '.';
+            buffer[index++] = '0';
+            return index;
+        }
+        if (significantDigits > 0) {
+            round();
+        }
+        return toChars(decimalSignificand, decimalExponent, buffer, index);
+    }
+
+    /**
+     * Computes the shortest decimal in the rounding interval of {@code c * 2^q}, as described in
+     * "The Schubfach way to render doubles" by Raffaello Giulietti, and stores it in
+     * {@link #decimalSignificand} and {@link #decimalExponent}.
+     *
+     * @param q the binary exponent
+     * @param c the binary significand
+     * @param dk the correction applied to the decimal exponent of scaled subnormals
+     */
+    private void toDecimal(int q, long c, int dk) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // The interval is asymmetric at powers of two
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = Powers.G[(k - K_MIN) << 1];
+        long g0 = Powers.G[(k - K_MIN) << 1 | 1];
+
+        long vb = roundOdd(g1, g0, cb << h);
+        long vbl = roundOdd(g1, g0, cbl << h);
+        long vbr = roundOdd(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Try one digit less: s' = floor(s / 10)
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                decimalSignificand = upin ? sp10 : tp10;
+                decimalExponent = k;
+                return;
+            }
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            decimalSignificand = uin ? s : t;
+        } else {
+            // Both candidates are in the interval: pick the closer one, the even one on a tie
+            long cmp = vb - (s + t << 1);
+            decimalSignificand = cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t;
+        }
+        decimalExponent = k + dk;
+    }
+
+    /**
+     * Rounds the decimal significand half up to at most {@link #significantDigits} digits.
+     */
+    private void round() {
+        long f = decimalSignificand;
+        int length = decimalLength(f);
+        if (length <= significantDigits) {
+            return;
+        }
+        long divisor = POW10[length - significantDigits];
+        f = (f + (divisor >> 1)) / divisor;
+        int e = decimalExponent + length - significantDigits;
+        if (f == POW10[significantDigits]) {
+            f = POW10[significantDigits - 1];
+            e++;
+        }
+        decimalSignificand = f;
+        decimalExponent = e;
+    }
+
+    /**
+     * Writes {@code f * 10^e} in the layout of {@link Double#toString(double)}.
+     *
+     * @param f the decimal significand, positive and below 10^17
+     * @param e the decimal exponent
+     * @param buffer the buffer to write to
+     * @param index the index of the first byte to write
+     * @return the index after the last byte written
+     */
+    private static int toChars(long f, int e, byte[] buffer, int index) {
+        int length = decimalLength(f);
+        // Normalize to 10^16 <= f < 10^17, so that the value is 0.f * 10^e
+        f *= POW10[H - length];
+        e += length;
+
+        // Split the 17 digits into the leading digit h, the next 8 digits m and the last 8 digits l
+        long hm = Math.multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+        int l = (int) (f - 100_000_000L * hm);
+        int h = (int) (hm * 1_441_151_881L >>> 57);
+        int m = (int) (hm - 100_000_000 * h);
+
+        if (0 < e && e <= 7) {
+            // Plain notation without leading zeros, e.g. 1234.5
+            buffer[index++] = (byte) ('0' + h);
+            int y = y(m);
+            int i = 1;
+            for (; i < e; i++) {
+                int t = 10 * y;
+                buffer[index++] = (byte) ('0' + (t >>> 28));
+                y = t & MASK_28;
+            }
+            buffer[index++] = '.';
+            for (; i <= 8; i++) {
+                int t = 10 * y;
+                buffer[index++] = (byte) ('0' + (t >>> 28));
+                y = t & MASK_28;
+            }
+            return lowDigits(l, buffer, index);
+        }
+        if (-3 < e && e <= 0) {
+            // Plain notation with leading zeros, e.g. 0.00125
+            buffer[index++] = '0';
+            buffer[index++] = '.';
+            for (; e < 0; e++) {
+                buffer[index++] = '0';
+            }
+            buffer[index++] = (byte) ('0' + h);
+            index = eightDigits(m, buffer, index);
+            return lowDigits(l, buffer, index);
+        }
+        // Computerized scientific notation, e.g. 1.25E-5
+        buffer[index++] = (byte) ('0' + h);
+        buffer[index++] = '.';
+        index = eightDigits(m, buffer, index);
+        index = lowDigits(l, buffer, index);
+        return exponent(e - 1, buffer, index);
+    }
+
+    /**
+     * Writes the last eight digits, if any is non-zero, and drops trailing zeros, keeping
+     * one digit after the decimal point.
+     *
+     * @param l the last eight digits
+     * @param buffer the buffer to write to
+     * @param index the index after the digits written so far
+     * @return the index after the last significant digit
+     */
+    private static int lowDigits(int l, byte[] buffer, int index) {
+        if (l != 0) {
+            index = eightDigits(l, buffer, index);
+        }
+        while (buffer[index - 1] == '0') {
+            index--;
+        }
+        if (buffer[index - 1] == '.') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Writes exactly eight digits, with leading zeros.
+     *
+     * @param m a number below 10^8
+     * @param buffer the buffer to write to
+     * @param index the index of the first digit
+     * @return the index after the last digit
+     */
+    private static int eightDigits(int m, byte[] buffer, int index) {
+        int y = y(m);
+        for (int i = 0; i < 8; i++) {
+            int t = 10 * y;
+            buffer[index++] = (byte) ('0' + (t >>> 28));
+            y = t & MASK_28;
+        }
+        return index;
+    }
+
+    /**
+     * Converts an eight-digit number into a 28-bit binary fraction whose successive
+     * multiplications by ten yield its digits from left to right.
+     *
+     * @param a a number below 10^8
+     * @return the fraction {@code floor((a + 1) * 2^28 / 10^8) - 1}
+     */
+    private static int y(int a) {
+        return (int) (Math.multiplyHigh((long) (a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+    }
+
+    /**
+     * Writes the exponent of the scientific notation.
+     *
+     * @param e the decimal exponent
+     * @param buffer the buffer to write to
+     * @param index the index of the exponent marker
+     * @return the index after the last digit
+     */
+    private static int exponent(int e, byte[] buffer, int index) {
+        buffer[index++] = 'E';
+        if (e < 0) {
+            buffer[index++] = '-';
+            e = -e;
+        }
+        if (e >= 100) {
+            int d = e * 1_311 >>> 17;
+            buffer[index++] = (byte) ('0' + d);
+            e -= 100 * d;
+            d = e * 103 >>> 10;
+            buffer[index++] = (byte) ('0' + d);
+            buffer[index++] = (byte) ('0' + e - 10 * d);
+        } else if (e >= 10) {
+            int d = e * 103 >>> 10;
+            buffer[index++] = (byte) ('0' + d);
+            buffer[index++] = (byte) ('0' + e - 10 * d);
+        } else {
+            buffer[index++] = (byte) ('0' + e);
+        }
+        return index;
+    }
+
+    /**
+     * Writes an ASCII string.
+     *
+     * @param text the text
+     * @param buffer the buffer to write to
+     * @param index the index of the first byte
+     * @return the index after the last byte
+     */
+    private static int ascii(String text, byte[] buffer, int index) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[index++] = (byte) text.charAt(i);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of decimal digits of a positive number.
+     *
+     * @param f a positive number below 10^18
+     * @return the number of digits
+     */
+    private static int decimalLength(long f) {
+        int length = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+        return f >= POW10[length] ? length + 1 : length;
+    }
+
+    /**
+     * Computes {@code x * g} rounded to odd, where g is the 126-bit table entry {@code g1 * 2^63 + g0}
+     * and only the top 64 bits of the product are kept.
+     *
+     * @param g1 the high 63 bits of the table entry
+     * @param g0 the low 63 bits of the table entry
+     * @param cp the scaled binary significand
+     * @return the rounded product
+     */
+    private static long roundOdd(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Returns {@code floor(log10(2^e))}.
+     *
+     * @param e an exponent with |e| at most 5456721
+     * @return the floor of the logarithm
+     */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /**
+     * Returns {@code floor(log10(3/4 * 2^e))}.
+     *
+     * @param e an exponent with |e| at most 2500
+     * @return the floor of the logarithm
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /**
+     * Returns {@code floor(log2(10^e))}.
+     *
+     * @param e an exponent with |e| at most 1233
+     * @return the floor of the logarithm
+     */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * Table of the Schubfach multipliers: for each k, {@code g = floor(10^-k / 2^r) + 1} where r is
+     * chosen so that 2^125 &lt;= 10^-k / 2^r &lt; 2^126, split into two 63-bit halves. It is computed
+     * exactly with {@link BigInteger} the first time a non-integer value is formatted.
+     */
+    private static final class Powers {
+
+        /** Pairs of high and low halves, indexed by {@code (k - K_MIN) * 2}. */
+        static final long[] G = new long[(K_MAX - K_MIN + 1) * 2];
+
+        static {
+            BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+            for (int k = K_MIN; k <= K_MAX; k++) {
+                BigInteger beta;
+                if (k <= 0) {
+                    BigInteger power = BigInteger.TEN.pow(-k);
+                    int r = power.bitLength() - 1 - 125;
+                    beta = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+                } else {
+                    BigInteger power = BigInteger.TEN.pow(k);
+                    // 10^-k lies between 2^-bitLength and 2^(1 - bitLength), so r = -bitLength - 125
+                    beta = BigInteger.ONE.shiftLeft(power.bitLength() + 125).divide(power);
+                }
+                BigInteger g = beta.add(BigInteger.ONE);
+                G[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+                G[(k - K_MIN) << 1 | 1] = g.and(mask63).longValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package polsl;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The NumberParser class parses decimal numbers from character sequences and byte ranges
+ * without creating strings or exceptions. The result is written into a caller-supplied
+ * array and the outcome is reported as a status code, like {@code tryConvert} in the models.
+ * <p>
+ * The accepted syntax is that of {@link Double#parseDouble(String)}. Plain decimal numbers,
+ * with an optional sign, fraction and exponent and surrounding whitespace, are parsed directly:
+ * exactly representable inputs are converted with one multiplication or division (Clinger's
+ * fast path), the others with the Eisel-Lemire algorithm over a table of 128-bit powers of ten.
+ * Both produce the correctly rounded double. The rare inputs neither can decide, such as
+ * numbers with more than 19 significant digits that lie close to a rounding boundary, and the
+ * special forms ({@code NaN}, {@code Infinity}, hexadecimal, {@code f}/{@code d} suffixes)
+ * are handed to the JDK parser, which is the only path that allocates.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class NumberParser {
+
+    /** Status of a successfully parsed number. */
+    public static final byte OK = 0;
+
+    /** Status of an input that is empty or only whitespace. */
+    public static final byte EMPTY = 1;
+
+    /** Status of an input that is not a number. */
+    public static final byte INVALID = 2;
+
+    /** Largest number of significant digits accumulated exactly; 19 digits always fit in 64 unsigned bits. */
+    private static final int MAX_DIGITS = 19;
+
+    /** Largest exponent value tracked while scanning; anything larger overflows or underflows anyway. */
+    private static final int MAX_EXPONENT = 100_000;
+
+    /** Powers of ten that are exact doubles, used by the fast path. */
+    private static final double[] EXACT_POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Sentinel returned by {@link #eiselLemire(long, int)} when it cannot decide the rounding. */
+    private static final long UNDECIDED = -1L;
+
+    /** Per-thread copy of the direct buffer range being parsed, grown as needed. */
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[64]);
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private NumberParser() {
+    }
+
+    /**
+     * Parses a whole character sequence.
+     *
+     * @param text the text to parse, e.g. the characters of a text field
+     * @param result the array receiving the parsed value
+     * @param index the index in the result array to write to
+     * @return {@link #OK}, {@link #EMPTY} or {@link #INVALID}; the result is written only for OK
+     */
+    public static byte parse(CharSequence text, double[] result, int index) {
+        return parse(text, 0, text.length(), result, index);
+    }
+
+    /**
+     * Parses a range of a character sequence.
+     *
+     * @param text the text to parse
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @param result the array receiving the parsed value
+     * @param index the index in the result array to write to
+     * @return {@link #OK}, {@link #EMPTY} or {@link #INVALID}; the result is written only for OK
+     * @throws IndexOutOfBoundsException if the range does not fit in the text
+     */
+    public static byte parse(CharSequence text, int start, int end, double[] result, int index) {
+        Objects.checkFromToIndex(start, end, text.length());
+        return scan(text, null, start, end, result, index);
+    }
+
+    /**
+     * Parses a range of bytes holding ASCII text.
+     *
+     * @param bytes the bytes to parse
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @param result the array receiving the parsed value
+     * @param index the index in the result array to write to
+     * @return {@link #OK}, {@link #EMPTY} or {@link #INVALID}; the result is written only for OK
+     * @throws IndexOutOfBoundsException if the range does not fit in the array
+     */
+    public static byte parse(byte[] bytes, int offset, int length, double[] result, int index) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return scan(null, bytes, offset, offset + length, result, index);
+    }
+
+    /**
+     * Parses a range of a byte buffer holding ASCII text, using absolute reads so that the
+     * buffer's position and limit are left unchanged. The range of a direct buffer is first
+     * copied into a scratch array kept by the calling thread.
+     *
+     * @param buffer the buffer to parse, heap or direct
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @param result the array receiving the parsed value
+     * @param index the index in the result array to write to
+     * @return {@link #OK}, {@link #EMPTY} or {@link #INVALID}; the result is written only for OK
+     * @throws IndexOutOfBoundsException if the range does not fit below the buffer's limit
+     */
+    public static byte parse(ByteBuffer buffer, int offset, int length, double[] result, int index) {
+        Objects.checkFromIndexSize(offset, length, buffer.limit());
+        if (buffer.hasArray()) {
+            return parse(buffer.array(), buffer.arrayOffset() + offset, length, result, index);
+        }
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+            SCRATCH.set(scratch);
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(offset + i);
+        }
+        return scan(null, scratch, 0, length, result, index);
+    }
+
+    /**
+     * Scans a range of text, given either as characters or as ASCII bytes, and computes its value.
+     *
+     * @param text the characters to parse, or null if bytes are given
+     * @param bytes the bytes to parse, or null if characters are given
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @param result the array receiving the parsed value
+     * @param index the index in the result array to write to
+     * @return {@link #OK}, {@link #EMPTY} or {@link #INVALID}; the result is written only for OK
+     */
+    private static byte scan(CharSequence text, byte[] bytes, int start, int end, double[] result, int index) {
+        while (start < end && charAt(text, bytes, start) <= ' ') {
+            start++;
+        }
+        while (end > start && charAt(text, bytes, end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return EMPTY;
+        }
+        int i = start;
+        int c = charAt(text, bytes, i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean anyDigit = false;
+        for (; i < end && (c = charAt(text, bytes, i)) >= '0' && c <= '9'; i++) {
+            anyDigit = true;
+            if (digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits += mantissa != 0 ? 1 : 0;
+            } else {
+                exponent++;
+                truncated |= c != '0';
+            }
+        }
+        if (i < end && charAt(text, bytes, i) == '.') {
+            for (i++; i < end && (c = charAt(text, bytes, i)) >= '0' && c <= '9'; i++) {
+                anyDigit = true;
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits += mantissa != 0 ? 1 : 0;
+                    exponent--;
+                } else {
+                    truncated |= c != '0';
+                }
+            }
+        }
+        if (anyDigit && i < end && ((c = charAt(text, bytes, i)) == 'e' || c == 'E')) {
+            i++;
+            boolean negativeExponent = i < end && charAt(text, bytes, i) == '-';
+            if (i < end && (negativeExponent || charAt(text, bytes, i) == '+')) {
+                i++;
+            }
+            int explicit = 0;
+            boolean anyExponentDigit = false;
+            for (; i < end && (c = charAt(text, bytes, i)) >= '0' && c <= '9'; i++) {
+                anyExponentDigit = true;
+                explicit = explicit < MAX_EXPONENT ? explicit * 10 + (c - '0') : explicit;
+            }
+            if (!anyExponentDigit) {
+                return INVALID;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (!anyDigit || i < end) {
+            return i < end && isSpecial(charAt(text, bytes, i))
+                    ? parseWithJdk(toString(text, bytes, start, end), result, index)
+                    : INVALID;
+        }
+        return finish(negative, mantissa, exponent, truncated, result, index)
+                ? OK : parseWithJdk(toString(text, bytes, start, end), result, index);
+    }
+
+    /**
+     * Returns a character of the text being scanned.
+     *
+     * @param text the characters being parsed, or null if bytes are
+     * @param bytes the bytes being parsed, or null if characters are
+     * @param i the index of the character
+     * @return the character, or the byte as an unsigned ISO-8859-1 character
+     */
+    private static int charAt(CharSequence text, byte[] bytes, int i) {
+        return bytes != null ? bytes[i] & 0xFF : text.charAt(i);
+    }
+
+    /**
+     * Copies a range of the text being scanned into a string, for the JDK parser.
+     *
+     * @param text the characters being parsed, or null if bytes are
+     * @param bytes the bytes being parsed, or null if characters are
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return the range as a string
+     */
+    private static String toString(CharSequence text, byte[] bytes, int start, int end) {
+        return bytes != null
+                ? new String(bytes, start, end - start, StandardCharsets.ISO_8859_1)
+                : text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Computes the double for a scanned number.
+     *
+     * @param negative whether the number has a minus sign
+     * @param mantissa the first 19 significant digits, as an unsigned integer
+     * @param exponent the power of ten the mantissa is multiplied by
+     * @param truncated whether non-zero digits were dropped after the first 19
+     * @param result the array receiving the value
+     * @param index the index in the result array to write to
+     * @return true if the value was written, false if the JDK parser must decide
+     */
+    private static boolean finish(boolean negative, long mantissa, int exponent, boolean truncated,
+            double[] result, int index) {
+        if (mantissa == 0) {
+            result[index] = negative ? -0.0 : 0.0;
+            return true;
+        }
+        if (!truncated && mantissa >= 0 && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+            double value = mantissa;
+            value = exponent < 0 ? value / EXACT_POWERS[-exponent] : value * EXACT_POWERS[exponent];
+            result[index] = negative ? -value : value;
+            return true;
+        }
+        long bits = eiselLemire(mantissa, exponent);
+        if (bits == UNDECIDED) {
+            return false;
+        }
+        if (truncated && eiselLemire(mantissa + 1, exponent) != bits) {
+            // The dropped digits lie between mantissa and mantissa + 1, and those round differently
+            return false;
+        }
+        result[index] = Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+        return true;
+    }
+
+    /**
+     * Converts {@code mantissa * 10^exponent} to the bits of the nearest double with the
+     * Eisel-Lemire algorithm. The mantissa is multiplied by a 128-bit approximation of the
+     * power of ten; when the truncated product cannot determine the rounding, or the result
+     * is subnormal or overflows, the method gives up.
+     *
+     * @param mantissa the non-zero decimal mantissa, as an unsigned integer
+     * @param exponent the power of ten
+     * @return the bits of the positive result, or {@link #UNDECIDED}
+     */
+    private static long eiselLemire(long mantissa, int exponent) {
+        if (exponent < PowersOfTen.MIN_EXPONENT || exponent > PowersOfTen.MAX_EXPONENT) {
+            return UNDECIDED;
+        }
+        int row = exponent - PowersOfTen.MIN_EXPONENT;
+        long high = PowersOfTen.HIGH[row];
+        long low = PowersOfTen.LOW[row];
+
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        long normalized = mantissa << leadingZeros;
+        // 217706 / 65536 approximates log2(10); 1023 is the exponent bias
+        long exponent2 = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        long productHigh = unsignedMultiplyHigh(normalized, high);
+        long productLow = normalized * high;
+        if ((productHigh & 0x1FF) == 0x1FF && Long.compareUnsigned(productLow + normalized, normalized) < 0) {
+            // The low bits may carry into the result: widen the product with the low half of the power
+            long extraHigh = unsignedMultiplyHigh(normalized, low);
+            long extraLow = normalized * low;
+            long mergedLow = productLow + extraHigh;
+            long mergedHigh = Long.compareUnsigned(mergedLow, productLow) < 0 ? productHigh + 1 : productHigh;
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow + 1 == 0
+                    && Long.compareUnsigned(extraLow + normalized, normalized) < 0) {
+                return UNDECIDED;
+            }
+            productHigh = mergedHigh;
+            productLow = mergedLow;
+        }
+
+        long topBit = productHigh >>> 63;
+        long bits = productHigh >>> (topBit + 9);
+        exponent2 -= 1 ^ topBit;
+        if (productLow == 0 && (productHigh & 0x1FF) == 0 && (bits & 3) == 1) {
+            // Exactly halfway between two doubles: the JDK applies round-half-even on the full input
+            return UNDECIDED;
+        }
+        bits += bits & 1;
+        bits >>>= 1;
+        if (bits >>> 53 != 0) {
+            bits >>>= 1;
+            exponent2++;
+        }
+        if (exponent2 <= 0 || exponent2 >= 0x7FF) {
+            return UNDECIDED;
+        }
+        return exponent2 << 52 | bits & 0x000F_FFFF_FFFF_FFFFL;
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128-bit product of two longs.
+     *
+     * @param a the first factor, as an unsigned integer
+     * @param b the second factor, as an unsigned integer
+     * @return the high half of the product
+     */
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    /**
+     * Returns whether a character can start the part of a number only the JDK parser handles:
+     * NaN, Infinity, a hexadecimal prefix or exponent, or a float or double suffix.
+     *
+     * @param c the first character that is not part of a plain decimal number
+     * @return true if the input must be given to the JDK parser
+     */
+    private static boolean isSpecial(int c) {
+        switch (c) {
+            case 'N':
+            case 'I':
+            case 'x':
+            case 'X':
+            case 'p':
+            case 'P':
+            case 'f':
+            case 'F':
+            case 'd':
+            case 'D':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses text with {@link Double#parseDouble(String)}, turning its exception into a status.
+     *
+     * @param text the trimmed text
+     * @param result the array receiving the parsed value
+     * @param index the index in the result array to write to
+     * @return {@link #OK} or {@link #INVALID}
+     */
+    private static byte parseWithJdk(String text, double[] result, int index) {
+        try {
+            result[index] = Double.parseDouble(text);
+            return OK;
+        } catch (NumberFormatException ex) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Table of 128-bit approximations of the powers of ten, rounded down and normalized so
+     * that the top bit is set. It is computed exactly with {@link BigInteger} the first time
+     * the Eisel-Lemire path is needed.
+     */
+    private static final class PowersOfTen {
+
+        /** Smallest power of ten in the table; smaller exponents always underflow for 19 digits. */
+        static final int MIN_EXPONENT = -348;
+
+        /** Largest power of ten in the table; larger exponents always overflow. */
+        static final int MAX_EXPONENT = 347;
+
+        /** High 64 bits of each power, indexed by exponent minus {@link #MIN_EXPONENT}. */
+        static final long[] HIGH = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+        /** Low 64 bits of each power, indexed like {@link #HIGH}. */
+        static final long[] LOW = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+        static {
+            for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+                BigInteger power = BigInteger.TEN.pow(Math.abs(exponent));
+                BigInteger mantissa;
+                if (exponent >= 0) {
+                    int shift = power.bitLength() - 128;
+                    mantissa = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+                } else {
+                    // floor(2^k / 10^-e) with k chosen so that the quotient has exactly 128 bits
+                    mantissa = BigInteger.ONE.shiftLeft(127 + power.bitLength()).divide(power);
+                }
+                HIGH[exponent - MIN_EXPONENT] = mantissa.shiftRight(64).longValue();
+                LOW[exponent - MIN_EXPONENT] = mantissa.longValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package polsl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted around every navigation of {@link Controller.ViewCache#show}, such as opening
+ * a converter from the main menu or going back to it.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@Name("polsl.SceneSwitch")
+@Label("Scene Switch")
+@Category({"Unit Converter", "View"})
+@Description("Showing a view in the stage, including loading it if it was not cached")
+public final class SceneSwitchEvent extends Event {
+
+    /** Resource path of the view switched to. */
+    @Label("View")
+    private String view;
+
+    /**
+     * Ends the event and commits it with the view, if a recording enables it.
+     *
+     * @param view the resource path of the FXML file
+     */
+    public void commit(String view) {
+        end();
+        if (shouldCommit()) {
+            this.view = view;
+            commit();
+        }
+    }
+}
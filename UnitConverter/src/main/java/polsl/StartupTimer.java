@@ -0,0 +1,54 @@
+package polsl;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.time.Instant;
+
+/**
+ * The StartupTimer class records the milestones of application startup, measured from
+ * the start of the JVM process, and logs them as a single breakdown once startup is complete.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class StartupTimer {
+
+    /** Logger receiving the milestones and the final breakdown. */
+    private static final Logger LOGGER = System.getLogger(StartupTimer.class.getName());
+
+    /** Start of the JVM process, in milliseconds since the epoch. */
+    private static final long JVM_START = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElse(System.currentTimeMillis());
+
+    /** Milestones recorded so far, formatted as "name +N ms". */
+    private static final StringBuilder MILESTONES = new StringBuilder("JVM start +0 ms");
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private StartupTimer() {
+    }
+
+    /**
+     * Records a startup milestone.
+     *
+     * @param name the name of the milestone, e.g. "toolkit ready"
+     * @return the time of the milestone in milliseconds since the JVM started
+     */
+    public static synchronized long mark(String name) {
+        long elapsed = System.currentTimeMillis() - JVM_START;
+        MILESTONES.append(", ").append(name).append(" +").append(elapsed).append(" ms");
+        LOGGER.log(Level.DEBUG, "Startup milestone {0} at +{1} ms", name, elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Records the final milestone and logs the whole startup breakdown.
+     *
+     * @param name the name of the final milestone
+     */
+    public static synchronized void finish(String name) {
+        mark(name);
+        LOGGER.log(Level.INFO, "Startup: {0}", MILESTONES);
+    }
+}
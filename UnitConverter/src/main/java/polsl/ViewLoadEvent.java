@@ -0,0 +1,37 @@
+package polsl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted around every FXML load of {@link Controller.ViewCache}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+@Name("polsl.ViewLoad")
+@Label("FXML Load")
+@Category({"Unit Converter", "View"})
+@Description("Loading and parsing an FXML view and creating its controller")
+public final class ViewLoadEvent extends Event {
+
+    /** Resource path of the loaded view. */
+    @Label("View")
+    private String view;
+
+    /**
+     * Ends the event and commits it with the view, if a recording enables it.
+     *
+     * @param view the resource path of the FXML file
+     */
+    public void commit(String view) {
+        end();
+        if (shouldCommit()) {
+            this.view = view;
+            commit();
+        }
+    }
+}
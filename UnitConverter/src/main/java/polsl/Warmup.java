@@ -0,0 +1,66 @@
+package polsl;
+
+import Exceptions.NegativeValueException;
+import Model.Dimension;
+import java.util.List;
+
+/**
+ * The Warmup class exercises every model and unit pair so that the model classes are
+ * loaded and their conversion paths are compiled by the JIT before the user's first conversion.
+ * It is meant to run on a background thread during startup. The conversions go through
+ * {@link Dimension#preview}, so the warm-up records no metrics and no flight recorder events.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+public final class Warmup {
+
+    /** Number of scalar conversions per unit pair, enough to trigger JIT compilation. */
+    private static final int SCALAR_ITERATIONS = 2_000;
+
+    /** Number of bulk conversions per unit pair. */
+    private static final int BULK_ITERATIONS = 20;
+
+    /** Number of values in each bulk conversion. */
+    private static final int BULK_SIZE = 1024;
+
+    /** Sink for conversion results, so the warm-up loops are not optimized away. */
+    private static volatile double sink;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Warmup() {
+    }
+
+    /**
+     * Runs the scalar and bulk conversion paths of every dimension for every unit pair.
+     */
+    public static void run() {
+        double[] values = new double[BULK_SIZE];
+        double[] results = new double[BULK_SIZE];
+        for (int i = 0; i < BULK_SIZE; i++) {
+            values[i] = i * 0.5;
+        }
+        double total = 0;
+        for (Dimension dimension : Dimension.values()) {
+            List<String> units = dimension.getUnits();
+            for (String from : units) {
+                for (String to : units) {
+                    try {
+                        for (int i = 0; i < SCALAR_ITERATIONS; i++) {
+                            total += dimension.preview(values[i % BULK_SIZE], from, to);
+                        }
+                        for (int i = 0; i < BULK_ITERATIONS; i++) {
+                            dimension.preview(values, results, 0, BULK_SIZE, from, to);
+                            total += results[i];
+                        }
+                    } catch (NegativeValueException ex) {
+                        throw new IllegalStateException("Warm-up values must not be negative", ex);
+                    }
+                }
+            }
+        }
+        sink = total;
+    }
+}
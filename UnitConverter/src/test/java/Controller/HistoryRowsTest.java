@@ -0,0 +1,58 @@
+package Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import polsl.ConversionHistory;
+import polsl.HistoryLog;
+
+/**
+ * Tests of {@link HistoryRows}, inserting the conversions reloaded from a {@link HistoryLog}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class HistoryRowsTest {
+
+    private static final List<String> UNITS = List.of("mm", "cm", "m", "km");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void insertsReloadedConversionsBeforeNewOnes() throws IOException, InterruptedException {
+        Path file = directory.resolve("history.bin");
+        try (HistoryLog log = new HistoryLog(file)) {
+            log.append(1.0, "m", "cm", 100.0);
+            log.append(100.0, "C", "F", 212.0);
+            log.append(2.0, "km", "m", 2000.0);
+            log.flush();
+        }
+        try (HistoryLog log = new HistoryLog(file)) {
+            HistoryRows rows = new HistoryRows(new ConversionHistory(UNITS.toArray(new String[0])), log);
+            rows.add(3.0, "cm", "mm", 30.0);
+            log.flush();
+            int[] added = new int[2];
+            rows.addListener((ListChangeListener<Object>) change -> {
+                change.next();
+                added[0] = change.getFrom();
+                added[1] = change.getAddedSize();
+            });
+
+            rows.restore(log.readPrevious(HistoryLog.DEFAULT_RELOAD), UNITS);
+
+            assertEquals(3, rows.size());
+            assertEquals(1.0, rows.get(0).getValue());
+            assertEquals(2.0, rows.get(1).getValue());
+            assertEquals(3.0, rows.get(2).getValue());
+            assertEquals(0, added[0]);
+            assertEquals(2, added[1]);
+            assertEquals(4, log.readTail(HistoryLog.DEFAULT_RELOAD).size());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Soak test for navigation between the views. Switches between the main menu and the
+ * conversion views by firing the same buttons a user clicks, 10000 times, and checks that
+ * neither the retained heap nor the scene's accelerator map grows.
+ * <p>
+ * Runs on the headless Monocle platform configured for the tests. It is skipped when the
+ * platform cannot lay out text, e.g. on a machine without Pango.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class NavigationSoakTest {
+
+    /** Buttons of the main menu leading to the conversion views, used in turn. */
+    private static final String[] VIEW_BUTTONS = {"#lengthButton", "#weightButton", "#temperatureButton"};
+
+    /** Navigations checked for growth. */
+    private static final int NAVIGATIONS = 10_000;
+
+    /** Navigations performed before the baseline is taken, so that every view is loaded and styled. */
+    private static final int WARMUP_NAVIGATIONS = 600;
+
+    /** Navigations performed per application-thread task; pulses run between the tasks. */
+    private static final int BATCH_SIZE = 100;
+
+    /** Largest accepted growth of the retained heap over the whole run, in bytes. */
+    private static final long MAX_HEAP_GROWTH = 1L << 20;
+
+    /** Longest wait for a task on the application thread, in seconds. */
+    private static final long TASK_TIMEOUT = 60;
+
+    private static Stage stage;
+
+    @BeforeAll
+    static void showMainMenu() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException ex) {
+            // Already started by another test
+            started.countDown();
+        }
+        started.await();
+        if (!canLayOutText()) {
+            return;
+        }
+        stage = onFxThread(() -> {
+            Stage window = new Stage();
+            ViewCache.show(window, MainMenuController.VIEW);
+            return window;
+        });
+    }
+
+    @AfterAll
+    static void closeStage() throws Exception {
+        if (stage != null) {
+            onFxThread(() -> {
+                stage.close();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.MINUTES)
+    void navigationDoesNotRetainMemory() throws Exception {
+        assumeTrue(stage != null, "Text layout is not available on this platform");
+        navigate(WARMUP_NAVIGATIONS);
+        int baselineAccelerators = onFxThread(() -> stage.getScene().getAccelerators().size());
+        long baselineHeap = retainedHeap();
+
+        navigate(NAVIGATIONS);
+        int accelerators = onFxThread(() -> stage.getScene().getAccelerators().size());
+        long growth = retainedHeap() - baselineHeap;
+
+        assertTrue(growth <= MAX_HEAP_GROWTH, "Retained heap grew by " + (growth >> 10) + " KiB over "
+                + NAVIGATIONS + " navigations");
+        assertEquals(baselineAccelerators, accelerators, "Scene accelerators");
+    }
+
+    /**
+     * Returns whether the platform can lay out text, which showing any view requires.
+     *
+     * @return false if the native text layout cannot be loaded
+     * @throws Exception if the check cannot be run
+     */
+    private static boolean canLayOutText() throws Exception {
+        try {
+            onFxThread(() -> new Text("0").getLayoutBounds());
+            return true;
+        } catch (ExecutionException ex) {
+            return !(ex.getCause() instanceof LinkageError);
+        }
+    }
+
+    /**
+     * Performs the given number of navigations, starting and ending on the main menu.
+     * Each navigation is one switch: from the main menu to a conversion view, or back.
+     *
+     * @param count the number of navigations, rounded up to an even number
+     * @throws Exception if a navigation fails
+     */
+    private static void navigate(int count) throws Exception {
+        int roundTrips = (count + 1) / 2;
+        for (int done = 0; done < roundTrips; done += BATCH_SIZE / 2) {
+            int first = done;
+            int last = Math.min(roundTrips, done + BATCH_SIZE / 2);
+            onFxThread(() -> {
+                for (int i = first; i < last; i++) {
+                    fire(stage.getScene(), VIEW_BUTTONS[i % VIEW_BUTTONS.length]);
+                    fire(stage.getScene(), "#backButton");
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Fires a button of the view currently shown in the scene.
+     *
+     * @param scene the scene of the stage
+     * @param selector the CSS selector of the button, e.g. "#backButton"
+     * @throws IllegalStateException if the shown view has no such button
+     */
+    private static void fire(Scene scene, String selector) {
+        Button button = (Button) scene.lookup(selector);
+        if (button == null) {
+            throw new IllegalStateException("Button not found: " + selector);
+        }
+        button.fire();
+    }
+
+    /**
+     * Returns the heap still in use after a few full collections.
+     *
+     * @return the retained heap in bytes
+     * @throws InterruptedException if interrupted while waiting for the collector
+     */
+    private static long retainedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Runs a task on the JavaFX application thread and waits for its result.
+     *
+     * @param <T> the type of the result
+     * @param task the task to run
+     * @return the result of the task
+     * @throws Exception if the task throws or does not finish in time
+     */
+    private static <T> T onFxThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        Platform.runLater(future);
+        return future.get(TASK_TIMEOUT, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,83 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import Exceptions.NegativeValueException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of what {@link Dimension} records through its {@link ConversionRecorder}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class DimensionTest {
+
+    private final CountingRecorder recorder = new CountingRecorder();
+
+    @BeforeEach
+    void install() {
+        Dimension.setRecorder(recorder);
+    }
+
+    @AfterEach
+    void uninstall() {
+        Dimension.setRecorder(ConversionRecorder.NONE);
+    }
+
+    @Test
+    void recordsConversionsAndRejections() throws NegativeValueException {
+        assertEquals(250.0, Dimension.LENGTH.convert(2.5, "m", "cm"));
+        assertThrows(NegativeValueException.class, () -> Dimension.WEIGHT.convert(-1.0, "kg", "g"));
+        double[] values = {1.0, -2.0, -3.0};
+        assertEquals(2, Dimension.LENGTH.convert(values, new double[3], new byte[3], 0, 3, "m", "km"));
+        assertEquals(3, recorder.conversions);
+        assertEquals(3, recorder.rejections);
+    }
+
+    @Test
+    void recordsParallelRejections() {
+        try (ParallelConverter converter = new ParallelConverter(2, 4)) {
+            double[] values = {1.0, 2.0, 3.0, 4.0, 5.0, -6.0, 7.0, 8.0, 9.0};
+            assertEquals(5, converter.convert(Dimension.LENGTH, values, new double[9], 0, 9, "m", "cm"));
+            assertEquals(-1, converter.convert(Dimension.TEMPERATURE, values, new double[9], 0, 9, "C", "K"));
+        }
+        assertEquals(1, recorder.rejections);
+    }
+
+    @Test
+    void doesNotRecordPreviews() throws NegativeValueException {
+        assertEquals(250.0, Dimension.LENGTH.preview(2.5, "m", "cm"));
+        assertEquals(212.0, Dimension.TEMPERATURE.preview(100.0, "C", "F"));
+        assertThrows(NegativeValueException.class, () -> Dimension.WEIGHT.preview(-1.0, "kg", "g"));
+        double[] values = {1.0, 2.0};
+        Dimension.LENGTH.preview(values, values, 0, 2, "km", "m");
+        assertEquals(2000.0, values[1]);
+        assertThrows(NegativeValueException.class,
+                () -> Dimension.LENGTH.preview(new double[] {-1.0}, new double[1], 0, 1, "km", "m"));
+        assertEquals(0, recorder.conversions);
+        assertEquals(0, recorder.rejections);
+    }
+
+    /**
+     * Counts what is recorded.
+     */
+    private static final class CountingRecorder implements ConversionRecorder {
+
+        int conversions;
+        int rejections;
+
+        @Override
+        public void recordConversion(Dimension dimension, String fromUnit, String toUnit, long nanos) {
+            conversions++;
+        }
+
+        @Override
+        public void recordNegativeRejections(int count) {
+            rejections += count;
+        }
+    }
+}
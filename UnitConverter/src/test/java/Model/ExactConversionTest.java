@@ -0,0 +1,117 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import Exceptions.NegativeValueException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link Dimension#convertExact}, checked against a BigDecimal reference.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class ExactConversionTest {
+
+    /** Random values converted per unit pair. */
+    private static final int VALUES_PER_PAIR = 20_000;
+
+    @Test
+    void convertsDecimalsExactly() throws NegativeValueException {
+        assertConverted("0.003", Dimension.LENGTH, "0.3", "cm", "m");
+        assertConverted("100", Dimension.TEMPERATURE, "212", "F", "C");
+        assertConverted("0", Dimension.TEMPERATURE, "-273.15", "C", "K");
+        assertConverted("2500", Dimension.WEIGHT, "2.5", "kg", "g");
+    }
+
+    @Test
+    void roundsQuotientsThatDoNotTerminate() throws NegativeValueException {
+        assertConverted(BigDecimal.valueOf(-155).divide(new BigDecimal(9), MathContext.DECIMAL128).toPlainString(),
+                Dimension.TEMPERATURE, "1", "F", "C");
+        assertEquals(BigDecimal.ONE, UnitRegistry.standard().decimalDivisor(id("C"), id("F")));
+        assertFalse(BigDecimal.ONE.equals(UnitRegistry.standard().decimalDivisor(id("F"), id("C"))));
+    }
+
+    @Test
+    void redoesOverflowingConversionsInBigDecimal() throws NegativeValueException {
+        FixedDecimal result = new FixedDecimal();
+        Dimension.TEMPERATURE.convertExact(new FixedDecimal().set(999_999_999_999_999_999L, 0), "C", "F", result);
+        assertFalse(result.isCompact());
+        assertEquals(0, new BigDecimal("1800000000000000030.2").compareTo(result.toBigDecimal()));
+        Dimension.LENGTH.convertExact(new FixedDecimal().set(Long.MAX_VALUE, 0), "km", "mm", result);
+        assertEquals(0, BigDecimal.valueOf(Long.MAX_VALUE).scaleByPowerOfTen(6).compareTo(result.toBigDecimal()));
+    }
+
+    @Test
+    void rejectsNegativeValuesWhereTheDimensionDoes() {
+        assertThrows(NegativeValueException.class,
+                () -> Dimension.LENGTH.convertExact(new FixedDecimal().set(-1, 0), "m", "cm", new FixedDecimal()));
+        assertThrows(IllegalArgumentException.class,
+                () -> Dimension.LENGTH.convertExact(new FixedDecimal().set(1, 0), "m", "kg", new FixedDecimal()));
+    }
+
+    @Test
+    void matchesTheBigDecimalReference() throws NegativeValueException {
+        SplittableRandom random = new SplittableRandom(2024);
+        FixedDecimal value = new FixedDecimal();
+        FixedDecimal result = new FixedDecimal();
+        for (Dimension dimension : Dimension.values()) {
+            for (String from : dimension.getUnits()) {
+                for (String to : dimension.getUnits()) {
+                    for (int i = 0; i < VALUES_PER_PAIR; i++) {
+                        long unscaled = random.nextLong(1_000_000_000_000_000_000L) / BigInteger.TEN.pow(random.nextInt(18)).longValue();
+                        if (dimension.acceptsNegative() && random.nextBoolean()) {
+                            unscaled = -unscaled;
+                        }
+                        value.set(unscaled, random.nextInt(-3, 10));
+                        dimension.convertExact(value, from, to, result);
+                        BigDecimal expected = reference(value.toBigDecimal(), from, to);
+                        assertEquals(0, expected.compareTo(result.toBigDecimal()),
+                                () -> value + " " + from + " to " + to + ": " + result + ", expected " + expected);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts a value as {@code (scale * x + offset) / divisor} in plain BigDecimal arithmetic,
+     * rounding to 34 digits only when the quotient does not terminate.
+     *
+     * @param value the value to convert
+     * @param from the unit of the value
+     * @param to the unit to convert to
+     * @return the converted value
+     */
+    private static BigDecimal reference(BigDecimal value, String from, String to) {
+        UnitRegistry registry = UnitRegistry.standard();
+        int fromId = id(from);
+        int toId = id(to);
+        BigDecimal dividend = registry.decimalScale(fromId, toId).multiply(value).add(registry.decimalOffset(fromId, toId));
+        BigDecimal divisor = registry.decimalDivisor(fromId, toId);
+        try {
+            return dividend.divide(divisor);
+        } catch (ArithmeticException ex) {
+            return dividend.divide(divisor, MathContext.DECIMAL128);
+        }
+    }
+
+    private static void assertConverted(String expected, Dimension dimension, String value, String from, String to)
+            throws NegativeValueException {
+        FixedDecimal input = new FixedDecimal();
+        input.parse(value);
+        FixedDecimal result = new FixedDecimal();
+        dimension.convertExact(input, from, to, result);
+        assertEquals(0, new BigDecimal(expected).compareTo(result.toBigDecimal()), result::toString);
+    }
+
+    private static int id(String unit) {
+        return UnitRegistry.standard().unitId(unit);
+    }
+}
@@ -0,0 +1,111 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import Exceptions.NegativeValueException;
+import java.math.BigDecimal;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link LengthModel}, pinning its results to those of the original conversion rules.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class LengthModelTest {
+
+    private static final String[] UNITS = {"m", "cm", "mm", "km"};
+
+    private final LengthModel model = new LengthModel();
+
+    @Test
+    void convertsAsTheOriginalModel() throws NegativeValueException {
+        assertEquals(0.031, model.convert(3.1, "cm", "m"));
+        assertEquals(9.0E-4, model.convert(0.9, "m", "km"));
+        assertEquals(4100000.0, model.convert(4.1, "km", "mm"));
+        assertEquals(250.0, model.convert(2.5, "m", "cm"));
+        assertEquals(0.0123, model.convert(12.3, "mm", "m"));
+    }
+
+    @Test
+    void matchesTheOriginalModelForEveryPair() throws NegativeValueException {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double value = i % 2 == 0 ? random.nextInt(100_000) / 100.0 : random.nextDouble() * Math.pow(10, random.nextInt(16) - 8);
+            for (String from : UNITS) {
+                for (String to : UNITS) {
+                    double expected = from.equals(to) ? value : original(value, from, to);
+                    assertEquals(expected, model.convert(value, from, to), value + " " + from + " to " + to);
+                }
+            }
+        }
+    }
+
+    @Test
+    void roundsConversionsOfTheBaseUnitCorrectly() throws NegativeValueException {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            double value = random.nextInt(1_000_000) / 1000.0;
+            BigDecimal exact = new BigDecimal(value);
+            assertEquals(exact.movePointLeft(2).doubleValue(), model.convert(value, "cm", "m"));
+            assertEquals(exact.movePointLeft(3).doubleValue(), model.convert(value, "m", "km"));
+            assertEquals(exact.movePointRight(3).doubleValue(), model.convert(value, "m", "mm"));
+        }
+    }
+
+    @Test
+    void convertsRangesAsSingleValues() throws NegativeValueException {
+        double[] values = {3.1, 0.9, 4.1, 0.0, 123.456};
+        for (String from : UNITS) {
+            for (String to : UNITS) {
+                double[] dst = new double[values.length];
+                byte[] status = new byte[values.length];
+                double[] checked = new double[values.length];
+                model.convert(values, dst, 0, values.length, from, to);
+                model.convert(values, checked, status, 0, values.length, from, to);
+                for (int i = 0; i < values.length; i++) {
+                    assertEquals(model.convert(values[i], from, to), dst[i]);
+                    assertEquals(model.convert(values[i], from, to), checked[i]);
+                    assertEquals(ConversionStatus.OK, status[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        assertThrows(NegativeValueException.class, () -> model.convert(-1.0, "m", "cm"));
+    }
+
+    /**
+     * The conversion of the original model, through meters.
+     */
+    private static double original(double value, String fromUnit, String toUnit) {
+        double valueInMeters;
+        switch (fromUnit) {
+            case "cm":
+                valueInMeters = value / 100;
+                break;
+            case "mm":
+                valueInMeters = value / 1000;
+                break;
+            case "km":
+                valueInMeters = value * 1000;
+                break;
+            default:
+                valueInMeters = value;
+        }
+        switch (toUnit) {
+            case "cm":
+                return valueInMeters * 100;
+            case "mm":
+                return valueInMeters * 1000;
+            case "km":
+                return valueInMeters / 1000;
+            default:
+                return valueInMeters;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link TemperatureModel}, comparing its fused transforms with the original
+ * conversions through Celsius.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class TemperatureModelTest {
+
+    private static final String[] UNITS = {"C", "F", "K"};
+
+    /**
+     * Results smaller than this fraction of the largest term of {@code scale * x + offset} come out of
+     * cancellation, where the rounding of the coefficients alone exceeds an ulp of the result.
+     */
+    private static final double CANCELLATION = 0.5;
+
+    /** Precision of the exact reference conversions. */
+    private static final MathContext EXACT = new MathContext(60);
+
+    private final TemperatureModel model = new TemperatureModel();
+
+    @Test
+    void staysWithinOneUlpOfTheConversionThroughCelsius() {
+        Random random = new Random(42);
+        int compared = 0;
+        for (int i = 0; i < 100_000; i++) {
+            double value = i % 2 == 0 ? random.nextInt(200_000) / 100.0 - 500 : (random.nextDouble() - 0.5) * 2000;
+            for (String from : UNITS) {
+                for (String to : UNITS) {
+                    LinearTransform transform = model.transform(from, to);
+                    double exact = exact(value, from, to);
+                    double largestTerm = Math.max(Math.abs(transform.getScale() * value), Math.abs(transform.getOffset()));
+                    if (Math.abs(exact) < largestTerm * CANCELLATION) {
+                        continue;
+                    }
+                    double twoStep = original(value, from, to);
+                    double fused = model.convert(value, from, to);
+                    String pair = value + " " + from + " to " + to + ": " + fused;
+                    // The two-step result rounds five times, so it is allowed its own distance from the exact result
+                    assertTrue(Math.abs(fused - twoStep) <= Math.ulp(twoStep) + Math.abs(twoStep - exact),
+                            pair + " instead of " + twoStep);
+                    assertTrue(Math.abs(fused - exact) <= Math.ulp(exact), pair + " instead of " + exact);
+                    compared++;
+                }
+            }
+        }
+        assertTrue(compared > 750_000, "Too few values compared: " + compared);
+    }
+
+    @Test
+    void roundsCommonTemperaturesCorrectly() {
+        assertEquals(38.48, model.convert(3.6, "C", "F"));
+        assertEquals(-459.67, model.convert(0.0, "K", "F"));
+        assertEquals(37.0, model.convert(98.6, "F", "C"));
+        assertEquals(-40.0, model.convert(-40.0, "C", "F"));
+        assertEquals(0.1, model.convert(0.1, "F", "F"));
+    }
+
+    @Test
+    void convertsRangesAsSingleValues() {
+        double[] values = {3.6, 0.0, -40.0, 0.1, 273.15, 98.6, -459.67, 1e6};
+        for (String from : UNITS) {
+            for (String to : UNITS) {
+                double[] dst = new double[values.length];
+                double[] checked = new double[values.length];
+                byte[] status = new byte[values.length];
+                model.convert(values, dst, 0, values.length, from, to);
+                assertEquals(0, model.convert(values, checked, status, 0, values.length, from, to));
+                for (int i = 0; i < values.length; i++) {
+                    assertEquals(model.convert(values[i], from, to), dst[i], values[i] + " " + from + " to " + to);
+                    assertEquals(dst[i], checked[i]);
+                    assertEquals(ConversionStatus.OK, status[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void leavesValuesInTheSameUnitUnchanged() {
+        for (String unit : UNITS) {
+            assertEquals(0.1, model.convert(0.1, unit, unit));
+            assertEquals(-0.0, model.convert(-0.0, unit, unit));
+        }
+    }
+
+    /**
+     * The conversion of the original model, computed exactly and rounded once.
+     */
+    private static double exact(double value, String fromUnit, String toUnit) {
+        BigDecimal celsius = new BigDecimal(value);
+        switch (fromUnit) {
+            case "F":
+                celsius = celsius.subtract(BigDecimal.valueOf(32)).multiply(BigDecimal.valueOf(5)).divide(BigDecimal.valueOf(9), EXACT);
+                break;
+            case "K":
+                celsius = celsius.subtract(new BigDecimal("273.15"));
+                break;
+            default:
+        }
+        switch (toUnit) {
+            case "F":
+                return celsius.multiply(new BigDecimal("1.8")).add(BigDecimal.valueOf(32)).doubleValue();
+            case "K":
+                return celsius.add(new BigDecimal("273.15")).doubleValue();
+            default:
+                return celsius.doubleValue();
+        }
+    }
+
+    /**
+     * The conversion of the original model, through Celsius.
+     */
+    private static double original(double value, String fromUnit, String toUnit) {
+        double valueInCelsius;
+        switch (fromUnit) {
+            case "F":
+                valueInCelsius = (value - 32) * 5 / 9;
+                break;
+            case "K":
+                valueInCelsius = value - 273.15;
+                break;
+            default:
+                valueInCelsius = value;
+        }
+        switch (toUnit) {
+            case "F":
+                return (valueInCelsius * 9 / 5) + 32;
+            case "K":
+                return valueInCelsius + 273.15;
+            default:
+                return valueInCelsius;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import Exceptions.NegativeValueException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link WeightModel}, pinning its results to those of the original conversion rules.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class WeightModelTest {
+
+    private static final String[] UNITS = {"g", "mg", "dg", "kg"};
+
+    private final WeightModel model = new WeightModel();
+
+    @Test
+    void convertsAsTheOriginalModel() throws NegativeValueException {
+        assertEquals(0.31, model.convert(3.1, "dg", "g"));
+        assertEquals(9.0E-4, model.convert(0.9, "g", "kg"));
+        assertEquals(4100000.0, model.convert(4.1, "kg", "mg"));
+    }
+
+    @Test
+    void matchesTheOriginalModelForEveryPair() throws NegativeValueException {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double value = i % 2 == 0 ? random.nextInt(100_000) / 100.0 : random.nextDouble() * Math.pow(10, random.nextInt(16) - 8);
+            for (String from : UNITS) {
+                for (String to : UNITS) {
+                    double expected = from.equals(to) ? value : original(value, from, to);
+                    assertEquals(expected, model.convert(value, from, to), value + " " + from + " to " + to);
+                    assertEquals(expected, Dimension.WEIGHT.transform(from, to).apply(value), value + " " + from + " to " + to);
+                }
+            }
+        }
+    }
+
+    /**
+     * The conversion of the original model, through grams.
+     */
+    private static double original(double value, String fromUnit, String toUnit) {
+        double valueInGrams;
+        switch (fromUnit) {
+            case "dg":
+                valueInGrams = value / 10;
+                break;
+            case "mg":
+                valueInGrams = value / 1000;
+                break;
+            case "kg":
+                valueInGrams = value * 1000;
+                break;
+            default:
+                valueInGrams = value;
+        }
+        switch (toUnit) {
+            case "dg":
+                return valueInGrams * 10;
+            case "mg":
+                return valueInGrams * 1000;
+            case "kg":
+                return valueInGrams / 1000;
+            default:
+                return valueInGrams;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package polsl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link BinaryService}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class BinaryServiceTest {
+
+    @Test
+    void convertsAFrame() throws IOException {
+        try (BinaryService service = new BinaryService(0, 2)) {
+            service.start();
+            try (SocketChannel channel = SocketChannel.open(service.getAddress())) {
+                ByteBuffer request = ByteBuffer.allocate(BinaryService.HEADER_BYTES + 2 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                request.putInt(2 * Double.BYTES).putInt(BinaryService.pairId("m", "cm")).putDouble(2.5).putDouble(-1.0).flip();
+                while (request.hasRemaining()) {
+                    channel.write(request);
+                }
+                ByteBuffer response = ByteBuffer.allocate(request.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+                while (response.hasRemaining() && channel.read(response) >= 0) {
+                    // Read the whole answering frame
+                }
+                assertEquals(BinaryService.STATUS_OK, response.getInt(4));
+                assertArrayEquals(new double[] {250.0, Double.NaN},
+                        new double[] {response.getDouble(8), response.getDouble(16)});
+            }
+        }
+    }
+
+    @Test
+    void releasesThePortWhenClosedWithoutStarting() throws IOException {
+        BinaryService service = new BinaryService(0, 2);
+        InetSocketAddress address = service.getAddress();
+        service.close();
+        try (BinaryService again = new BinaryService(address.getPort(), 1)) {
+            assertEquals(address.getPort(), again.getAddress().getPort());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package polsl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link HttpService}, keeping values JSON cannot represent out of its answers.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class HttpServiceTest {
+
+    private HttpService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        service = new HttpService(0, 16);
+        service.start();
+    }
+
+    @AfterEach
+    void stop() {
+        service.stop();
+    }
+
+    @Test
+    void convertsAValue() throws IOException {
+        assertEquals("200 {\"value\":2.5,\"from\":\"m\",\"to\":\"cm\",\"result\":250.0}",
+                request("GET", "/convert?value=2.5&from=m&to=cm", null));
+    }
+
+    @Test
+    void rejectsValuesThatAreNotFinite() throws IOException {
+        assertEquals(400, status(request("GET", "/convert?value=NaN&from=m&to=cm", null)));
+        assertEquals(400, status(request("GET", "/convert?value=Infinity&from=C&to=F", null)));
+        assertEquals(400, status(request("GET", "/convert?value=-Infinity&from=C&to=F", null)));
+    }
+
+    @Test
+    void answersNullForResultsThatAreNotFinite() throws IOException {
+        assertEquals("200 {\"value\":1.0E308,\"from\":\"km\",\"to\":\"mm\",\"result\":null}",
+                request("GET", "/convert?value=1e308&from=km&to=mm", null));
+        assertEquals("200 [212.0,null,null,null]",
+                request("POST", "/convert/batch?from=C&to=F", "[100.0,NaN,Infinity,1e308]"));
+    }
+
+    @Test
+    void streamsLargeBatches() throws IOException {
+        StringBuilder body = new StringBuilder();
+        StringBuilder expected = new StringBuilder("200 ");
+        for (int i = 0; i < 10_000; i++) {
+            body.append(i).append(".5\n");
+            expected.append(i * 100 + 50).append(".0\n");
+        }
+        assertEquals(expected.toString(), request("POST", "/convert/batch?from=m&to=cm", body.toString()));
+    }
+
+    @Test
+    void rejectsBatchesWithTooManyValues() throws IOException {
+        String body = "0\n".repeat(HttpService.MAX_VALUES + 1);
+        assertEquals(413, status(request("POST", "/convert/batch?from=m&to=cm", body)));
+        assertEquals(200, status(request("POST", "/convert/batch?from=m&to=cm", body.substring(2))));
+    }
+
+    @Test
+    void rejectsMalformedEscapes() {
+        assertEquals("°C", HttpService.parameter("value=1&from=%C2%B0C", "from"));
+        HttpService.InvalidRequestException ex = assertThrows(HttpService.InvalidRequestException.class,
+                () -> HttpService.parameter("value=1&from=%zz", "from"));
+        assertEquals("Malformed escape in the from parameter", ex.getMessage());
+    }
+
+    private String request(String method, String path, String body) throws IOException {
+        URL url = new URL("http://localhost:" + service.getAddress().getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return status + " " + new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static int status(String response) {
+        return Integer.parseInt(response.substring(0, 3));
+    }
+}
@@ -0,0 +1,62 @@
+package polsl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import Exceptions.NegativeValueException;
+import Model.Dimension;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of {@link MappedColumnConverter}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class MappedColumnConverterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void convertsInPlace() throws IOException, NegativeValueException {
+        Path file = write(3.1, 0.9, 4.1);
+        assertEquals(3, new MappedColumnConverter(Dimension.LENGTH, "cm", "m").convert(file, null));
+        assertArrayEquals(new double[] {3.1 / 100, 0.9 / 100, 4.1 / 100}, read(file));
+    }
+
+    @Test
+    void leavesTheFileUnchangedWhenAValueIsRejected() throws IOException {
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        values[values.length - 1] = -1.0;
+        Path file = write(values);
+        byte[] before = Files.readAllBytes(file);
+        NegativeValueException ex = assertThrows(NegativeValueException.class,
+                () -> new MappedColumnConverter(Dimension.LENGTH, "cm", "m").convert(file, null));
+        assertTrue(ex.getMessage().contains("value index 19999"), ex.getMessage());
+        assertArrayEquals(before, Files.readAllBytes(file));
+    }
+
+    private Path write(double... values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        return Files.write(directory.resolve("column.bin"), buffer.array());
+    }
+
+    private static double[] read(Path file) throws IOException {
+        double[] values = new double[(int) (Files.size(file) / Double.BYTES)];
+        ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+        return values;
+    }
+}
@@ -0,0 +1,80 @@
+package polsl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link NumberFormatter}.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class NumberFormatterTest {
+
+    private final NumberFormatter formatter = new NumberFormatter();
+
+    @Test
+    void writesTheLayoutOfDoubleToString() {
+        assertEquals("2.5 m", formatter.toString(2.5, "m"));
+        assertEquals("0.001 m", formatter.toString(0.001, "m"));
+        assertEquals("1.0E7 m", formatter.toString(1e7, "m"));
+        assertEquals("1.0E-5 m", formatter.toString(1e-5, "m"));
+        assertEquals("-0.0 m", formatter.toString(-0.0, "m"));
+        assertEquals("0.30000000000000004 m", formatter.toString(0.1 + 0.2, "m"));
+        assertEquals("NaN m", formatter.toString(Double.NaN, "m"));
+        assertEquals("-Infinity m", formatter.toString(Double.NEGATIVE_INFINITY, "m"));
+        assertEquals("4.9E-324 m", formatter.toString(Double.MIN_VALUE, "m"));
+        assertEquals("-2.2250738585072014E-308 m", formatter.toString(-Double.MIN_NORMAL, "m"));
+    }
+
+    @Test
+    void writesDigitsThatParseBackToTheSameValue() {
+        SplittableRandom random = new SplittableRandom(2024);
+        char[] chars = new char[NumberFormatter.MAX_LENGTH];
+        byte[] bytes = new byte[NumberFormatter.MAX_LENGTH];
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isFinite(value)) {
+                continue;
+            }
+            int length = formatter.format(value, chars, 0);
+            String text = new String(chars, 0, length);
+            assertEquals(value, Double.parseDouble(text), text);
+            assertTrue(length <= Double.toString(value).length(), text);
+            assertEquals(length, formatter.format(value, bytes, 0));
+            assertEquals(text, new String(bytes, 0, length, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void roundsToTheSignificantDigits() {
+        NumberFormatter three = new NumberFormatter(3);
+        assertEquals("0.3 m", three.toString(0.1 + 0.2, "m"));
+        assertEquals("0.667 m", three.toString(2.0 / 3, "m"));
+        assertEquals("123000.0 m", three.toString(123456.0, "m"));
+        assertEquals("1.0E7 m", three.toString(9999999.0, "m"));
+        assertEquals("-2.23E-308 m", three.toString(-Double.MIN_NORMAL, "m"));
+        assertThrows(IllegalArgumentException.class, () -> new NumberFormatter(0));
+        assertThrows(IllegalArgumentException.class, () -> new NumberFormatter(18));
+    }
+
+    @Test
+    void leavesAnUndersizedBufferUnchanged() {
+        byte[] bytes = new byte[6];
+        assertThrows(IndexOutOfBoundsException.class, () -> formatter.format(1.23456, bytes, 0));
+        assertArrayEquals(new byte[6], bytes);
+        assertThrows(IndexOutOfBoundsException.class, () -> formatter.format(2.5, "km", bytes, 2));
+        assertArrayEquals(new byte[6], bytes);
+        char[] chars = new char[6];
+        assertThrows(IndexOutOfBoundsException.class, () -> formatter.format(2.5, "km", chars, 1));
+        assertArrayEquals(new char[6], chars);
+        assertEquals(6, formatter.format(2.5, "km", chars, 0));
+        assertEquals("2.5 km", new String(chars));
+    }
+}
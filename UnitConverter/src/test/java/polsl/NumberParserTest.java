@@ -0,0 +1,102 @@
+package polsl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link NumberParser}, checked against {@link Double#parseDouble(String)} on every input type.
+ *
+ * @author Bartek Bielak
+ * @version 1.0
+ */
+class NumberParserTest {
+
+    @Test
+    void parsesLikeTheJdk() {
+        String[] inputs = {
+            "0", "-0", "+0.0", "1", "-1", "2.5", " 3.6\t", ".5", "5.", "1e3", "1E-3", "-1.5e+10",
+            "0.1", "0.3", "123456789012345678", "1234567890123456789012345", "9007199254740993",
+            "2.2250738585072014E-308", "4.9e-324", "1e-400", "1.7976931348623157e308", "1e309",
+            "0.000000000000000000000000000001", "1e22", "1e23", "8.41e21", "3.14159265358979323846",
+            "NaN", "-Infinity", "0x1.8p1", "1.5f", "2d",
+        };
+        for (String input : inputs) {
+            assertParsed(input);
+        }
+    }
+
+    @Test
+    void reportsEmptyAndInvalidInput() {
+        for (String input : new String[] {"", "  ", "\t\n"}) {
+            assertEquals(NumberParser.EMPTY, status(input), input);
+        }
+        for (String input : new String[] {"abc", "1,5", "1e", "1e+", "-", ".", "1.2.3", "--1", "e5", "1 2", "Nan"}) {
+            assertEquals(NumberParser.INVALID, status(input), input);
+        }
+    }
+
+    @Test
+    void parsesRandomNumbersLikeTheJdk() {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int i = 0; i < 20_000; i++) {
+            assertParsed(Double.toString(Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE)));
+            StringBuilder digits = new StringBuilder();
+            for (int n = random.nextInt(1, 25); n > 0; n--) {
+                digits.append((char) ('0' + random.nextInt(10)));
+            }
+            digits.insert(random.nextInt(digits.length() + 1), '.');
+            assertParsed(digits.append('e').append(random.nextInt(-330, 310)).toString());
+        }
+    }
+
+    @Test
+    void readsOnlyTheGivenRange() {
+        double[] result = new double[2];
+        assertEquals(NumberParser.OK, NumberParser.parse("[12.5,-3]", 1, 5, result, 0));
+        assertEquals(NumberParser.OK, NumberParser.parse("[12.5,-3]".getBytes(StandardCharsets.US_ASCII), 6, 2, result, 1));
+        assertEquals(12.5, result[0]);
+        assertEquals(-3.0, result[1]);
+    }
+
+    /**
+     * Checks that every overload parses the input to the value the JDK parser returns.
+     *
+     * @param input the text to parse
+     */
+    private static void assertParsed(String input) {
+        double expected = Double.parseDouble(input);
+        byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+        direct.position(2);
+        direct.put(bytes);
+        double[] result = new double[4];
+        assertEquals(NumberParser.OK, NumberParser.parse(input, result, 0), input);
+        assertEquals(NumberParser.OK, NumberParser.parse(bytes, 0, bytes.length, result, 1), input);
+        assertEquals(NumberParser.OK, NumberParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, result, 2), input);
+        assertEquals(NumberParser.OK, NumberParser.parse(direct, 2, bytes.length, result, 3), input);
+        for (double value : result) {
+            assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(value), input);
+        }
+    }
+
+    /**
+     * Returns the status every overload reports for the input, checking that they agree.
+     *
+     * @param input the text to parse
+     * @return the status
+     */
+    private static byte status(String input) {
+        byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        double[] result = new double[1];
+        byte status = NumberParser.parse(input, result, 0);
+        assertEquals(status, NumberParser.parse(bytes, 0, bytes.length, result, 0), input);
+        assertEquals(status, NumberParser.parse(direct, 0, bytes.length, result, 0), input);
+        return status;
+    }
+}